@@ -2,6 +2,7 @@ plugins {
 	java
 	application
 	id("com.github.johnrengelman.shadow") version "8.1.1"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -37,6 +38,18 @@ tasks.withType<Test> {
 	useJUnitPlatform()
 }
 
+// benchmarks live in src/jmh/java; run them with ./gradlew jmh, or a subset with -PjmhIncludes=<regex>
+jmh {
+	jmhVersion.set("1.37")
+	warmupIterations.set(3)
+	iterations.set(5)
+	fork.set(1)
+	resultFormat.set("JSON")
+	if (project.hasProperty("jmhIncludes")) {
+		includes.set(listOf(project.property("jmhIncludes").toString()))
+	}
+}
+
 application {
 	mainClass.set("it.unibo.bazinga.App")
 }
@@ -0,0 +1,50 @@
+package it.unibo.bazinga.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import it.unibo.bazinga.controller.observer.ModelDTO;
+
+/**
+ * Cost of publishing a snapshot for the view. The snapshot carries the changes of one cycle,
+ * so the cycle runs in the same invocation; {@link #step()} measures it alone, dropping the changes
+ * as the simulation thread does when nobody listens, so that the difference between the two is
+ * the cost of building the snapshot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelDTOBenchmark {
+	@Param({"64", "256"})
+	public int size;
+
+	private Model model;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		model = new Model(size, size);
+		model.buildModelDTO();
+	}
+
+	@Benchmark
+	public SimulationEngine step() {
+		model.getEngine().step();
+		model.discardChanges();
+		return model.getEngine();
+	}
+
+	@Benchmark
+	public ModelDTO stepAndBuildModelDTO() {
+		model.getEngine().step();
+		return model.buildModelDTO();
+	}
+}
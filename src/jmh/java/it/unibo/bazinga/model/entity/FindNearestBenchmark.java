@@ -0,0 +1,62 @@
+package it.unibo.bazinga.model.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import it.unibo.bazinga.model.world.World;
+import it.unibo.bazinga.model.world.WorldManager;
+
+/**
+ * Time of a nearest-entity search at several sight ranges, on a 256x256 world
+ * populated like the default configuration. Each invocation searches from {@value #SEARCHERS} sheep,
+ * for the nearest plant and the nearest wolf, as a sheep does when it decides,
+ * either through the spatial index or ring by ring over the tiles, as with {@code model.spatial.index=false}.
+ * The benchmark lives in the entity package to reach the protected search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FindNearestBenchmark {
+	private static final int SIZE = 256;
+	private static final int SEARCHERS = 64;
+
+	@Param({"4", "16", "64"})
+	public int range;
+
+	@Param({"index", "rings"})
+	public String search;
+
+	private final List<BasicEntity> searchers = new ArrayList<>();
+
+	@Setup
+	public void setUp() {
+		World world = WorldManager.generateGrid(SIZE, SIZE);
+		EntityManager entityManager = new EntityManager(world, null, "index".equals(search));
+		int area = SIZE * SIZE;
+		entityManager.generateInitialEntities(area / 4, area / 16, area / 1024);
+		for (BasicEntity entity : entityManager.getEntities()) {
+			if (entity instanceof SheepEntity && searchers.size() < SEARCHERS) { searchers.add(entity); }
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SEARCHERS * 2)
+	public void findNearest(Blackhole blackhole) {
+		for (BasicEntity sheep : searchers) {
+			blackhole.consume(sheep.findNearestEntity(PlantEntity.class, range));
+			blackhole.consume(sheep.findNearestEntity(WolfEntity.class, range));
+		}
+	}
+}
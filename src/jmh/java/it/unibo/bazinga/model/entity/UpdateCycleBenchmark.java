@@ -0,0 +1,55 @@
+package it.unibo.bazinga.model.entity;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import it.unibo.bazinga.model.world.World;
+import it.unibo.bazinga.model.world.WorldManager;
+
+/**
+ * Time of one simulation cycle at several world sizes and population densities.
+ * The population is scaled with the area, so that density 1 matches the default configuration
+ * of a 64x64 world: a plant every 4 tiles, a sheep every 16 and a wolf every 1024.
+ * Each invocation runs a batch of {@value #CYCLES} cycles on a freshly generated world, short enough that
+ * the population stays near its starting size; left running, it dies out within a few thousand cycles
+ * and the benchmark would mostly time a world of plants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UpdateCycleBenchmark {
+	private static final int CYCLES = 50;
+
+	@Param({"64", "128", "256"})
+	public int size;
+
+	@Param({"1", "2"})
+	public int density;
+
+	private EntityManager entityManager;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		World world = WorldManager.generateGrid(size, size);
+		entityManager = new EntityManager(world);
+		int area = size * size;
+		entityManager.generateInitialEntities(density * area / 4, density * area / 16, Math.max(1, density * area / 1024));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(CYCLES)
+	public EntityManager updateCycle() {
+		for (int i = 0; i < CYCLES; i++) { entityManager.updateCycle(); }
+		return entityManager;
+	}
+}
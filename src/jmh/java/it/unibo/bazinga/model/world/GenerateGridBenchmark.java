@@ -0,0 +1,42 @@
+package it.unibo.bazinga.model.world;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to generate a square world, from 128x128 up to 4096x4096 tiles, with the lake generator
+ * and with the parallel noise generator on every available core.
+ * The larger worlds take seconds each, so every invocation is timed on its own with a larger heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class GenerateGridBenchmark {
+	@Param({"128", "512", "1024", "2048", "4096"})
+	public int size;
+
+	@Benchmark
+	public World generateGrid() {
+		return WorldManager.generateGrid(size, size);
+	}
+
+	@Benchmark
+	public World generateNoise() {
+		World world = new World(size, size, size);
+		new NoiseWorldGenerator(size, Runtime.getRuntime().availableProcessors()).generate(world);
+		return world;
+	}
+}
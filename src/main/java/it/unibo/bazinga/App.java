@@ -1,13 +1,38 @@
 package it.unibo.bazinga;
 
+import it.unibo.bazinga.common.SharedConstants;
 import it.unibo.bazinga.common.StartupMenu;
+import it.unibo.bazinga.model.SimulationEngine;
 import javafx.application.Application;
 
 public final class App {
+	private static final int DEFAULT_HEADLESS_TICKS = 10_000;
+
+	/**
+	 * Starts the GUI, or runs the simulation without a display when invoked
+	 * as {@code --headless [ticks]}.
+	 *
+	 * @param args the command line arguments
+	 */
 	public static void main(final String[] args) {
+		if (args.length > 0 && "--headless".equals(args[0])) {
+			runHeadless(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HEADLESS_TICKS);
+			return;
+		}
 		Application.launch(StartupMenu.class, args);
 	}
 
+	// run the configured world for the given number of ticks and report the throughput and the time per phase
+	private static void runHeadless(int ticks) {
+		SimulationEngine engine = new SimulationEngine(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		long start = System.nanoTime();
+		engine.step(ticks);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		engine.close();
+		System.out.printf("%d ticks in %.3f s (%.0f ticks/s), %d entities alive%n",
+				ticks, seconds, ticks / seconds, engine.getEntityManager().getEntities().size());
+		System.out.println(engine.getEntityManager().getProfiler().summary());
+	}
+
 	private App() { }
 }
-
@@ -0,0 +1,68 @@
+package it.unibo.bazinga.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds with a fixed memory footprint and no allocation per sample.
+ * Values are counted in log-linear buckets: every power of two is split into 8 buckets,
+ * so percentiles are exact for small values and within 12.5% above them.
+ * Recording and reading are safe from any thread.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BITS = 3;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BITS + 1) * SUB_COUNT;
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Adds a sample.
+	 *
+	 * @param nanos the duration in nanoseconds; negative values count as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(indexOf(value));
+		total.incrementAndGet();
+		if (value > max.get()) { max.accumulateAndGet(value, Math::max); }
+	}
+
+	/**
+	 * Returns the duration within which the given share of the samples completed, rounded up to its bucket.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the duration in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getPercentile(double percentile) {
+		long count = total.get();
+		if (count == 0) { return 0; }
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) { return Math.min(upperBound(i), max.get()); }
+		}
+		return max.get();
+	}
+
+	public long getCount() { return total.get(); }
+	public long getMax() { return max.get(); }
+
+	// bucket of a value: exact below SUB_COUNT, then SUB_COUNT buckets per power of two
+	static int indexOf(long value) {
+		if (value < SUB_COUNT) { return (int) value; }
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+		return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+
+	// largest value that falls in the given bucket
+	static long upperBound(int index) {
+		if (index < SUB_COUNT) { return index; }
+		int exponent = index / SUB_COUNT + SUB_BITS - 1;
+		int sub = index % SUB_COUNT;
+		return ((long) (SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+	}
+}
@@ -39,7 +39,20 @@ public final class SharedConstants {
 	public static final double WORLD_WATER_RATIO = Double.parseDouble(PROPERTIES.getProperty("world.water.ratio", "4"));
 	public static final double WORLD_LAKE_RATIO = Double.parseDouble(PROPERTIES.getProperty("world.lake.ratio", "7"));
 	public static final int WORLD_LAKE_COUNT = Integer.parseInt(PROPERTIES.getProperty("world.lake.count", "6"));
+	public static final String WORLD_GENERATOR = PROPERTIES.getProperty("world.generator", "lakes");
+	public static final int WORLD_GENERATOR_THREADS = Integer.parseInt(PROPERTIES.getProperty("world.generator.threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+	public static final boolean WORLD_STREAMING = Boolean.parseBoolean(PROPERTIES.getProperty("world.streaming", "false"));
+	public static final int WORLD_STREAMING_SIZE = Integer.parseInt(PROPERTIES.getProperty("world.streaming.size", "16384"));
+	public static final int WORLD_STREAMING_RADIUS = Integer.parseInt(PROPERTIES.getProperty("world.streaming.radius", "2"));
+	public static final int WORLD_STREAMING_IDLE_TICKS = Integer.parseInt(PROPERTIES.getProperty("world.streaming.idle.ticks", "500"));
+	public static final long WORLD_SEED = Long.parseLong(PROPERTIES.getProperty("world.seed", String.valueOf(System.nanoTime())));
 	public static final int ENTITY_UPDATE_INTERVAL = Integer.parseInt(PROPERTIES.getProperty("model.update.interval", "500"));
+	public static final int MODEL_TURBO_MAX_TICKS = Integer.parseInt(PROPERTIES.getProperty("model.turbo.max.ticks", "64"));
+	public static final int MODEL_DECISION_THREADS = Integer.parseInt(PROPERTIES.getProperty("model.decision.threads", "1"));
+	public static final String MODEL_ENTITY_STORAGE = PROPERTIES.getProperty("model.entity.storage", "objects");
+	public static final String MODEL_STORAGE = PROPERTIES.getProperty("model.storage", "heap");
+	public static final String MODEL_STORAGE_DIRECTORY = PROPERTIES.getProperty("model.storage.directory", "storage");
+	public static final boolean MODEL_SPATIAL_INDEX = Boolean.parseBoolean(PROPERTIES.getProperty("model.spatial.index", "true"));
 
 	// Sheep
 	public static final int SHEEP_COUNT = Integer.parseInt(PROPERTIES.getProperty("sheep.count", "100"));
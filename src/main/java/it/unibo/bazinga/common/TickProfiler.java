@@ -0,0 +1,77 @@
+package it.unibo.bazinga.common;
+
+import java.util.Locale;
+
+/**
+ * Times every phase of a simulation tick, plus building the snapshot for the view and rendering it,
+ * into one LatencyHistogram per phase.
+ * Timing a phase costs two reads of {@link System#nanoTime()}, so the profiler is always on.
+ *
+ * <pre>
+ * long t = profiler.start();
+ * reduceEnergy();
+ * t = profiler.lap(Phase.REDUCE_ENERGY, t);
+ * </pre>
+ */
+public class TickProfiler {
+	private final LatencyHistogram[] histograms = new LatencyHistogram[Phase.values().length];
+
+	/**
+	 * The timed phases, in the order they happen.
+	 */
+	public enum Phase {
+		REDUCE_ENERGY,
+		REMOVE_DEAD_ENTITIES,
+		COLLECT_REQUESTS,
+		VALIDATE_REQUESTS,
+		PROCESS_ACTIONS,
+		RESET_BAZINGED_FLAGS,
+		RESURRECT_PLANTS,
+		BUILD_DTO,
+		RENDER
+	}
+
+	public TickProfiler() {
+		for (int i = 0; i < histograms.length; i++) { histograms[i] = new LatencyHistogram(); }
+	}
+
+	/**
+	 * Starts timing the first of a sequence of phases.
+	 *
+	 * @return the current time, to pass to {@link #lap(Phase, long)}
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records the phase that started at the given time and ended now.
+	 *
+	 * @param phase the phase that just ended
+	 * @param since the time the phase started
+	 * @return the current time, which is the start of the next phase
+	 */
+	public long lap(Phase phase, long since) {
+		long now = System.nanoTime();
+		histograms[phase.ordinal()].record(now - since);
+		return now;
+	}
+
+	public LatencyHistogram getHistogram(Phase phase) { return histograms[phase.ordinal()]; }
+
+	/**
+	 * Describes every phase that was timed at least once, one per line, in microseconds.
+	 *
+	 * @return the p50, p99 and max duration of each phase
+	 */
+	public String summary() {
+		StringBuilder sb = new StringBuilder("phase  p50  p99  max (us)");
+		for (Phase phase : Phase.values()) {
+			LatencyHistogram h = getHistogram(phase);
+			if (h.getCount() == 0) { continue; }
+			sb.append(String.format(Locale.ROOT, "%n%s  %.1f  %.1f  %.1f", phase.name().toLowerCase(Locale.ROOT),
+					h.getPercentile(50) / 1e3, h.getPercentile(99) / 1e3, h.getMax() / 1e3));
+		}
+		return sb.toString();
+	}
+}
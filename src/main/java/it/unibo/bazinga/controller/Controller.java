@@ -1,5 +1,7 @@
 package it.unibo.bazinga.controller;
 
+import java.util.concurrent.CompletableFuture;
+
 import it.unibo.bazinga.common.SharedConstants;
 import it.unibo.bazinga.controller.observer.ModelDTO;
 import it.unibo.bazinga.controller.observer.ModelObserver;
@@ -8,7 +10,10 @@ import it.unibo.bazinga.model.Model;
 import it.unibo.bazinga.controller.observer.ViewDTO;
 import it.unibo.bazinga.view.View;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.event.EventHandler;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
 /**
  * Controller class that manages the communication between the Model and the View
@@ -21,8 +26,12 @@ import javafx.stage.Stage;
  * - starting the application
  */
 public class Controller extends Application implements ModelObserver, ViewObserver {
+	private static final int MIN_UPDATE_INTERVAL = 100;
+	private static final int MAX_UPDATE_INTERVAL = 1500;
+	private static final int UPDATE_INTERVAL_STEP = 100;
 	private Model model;
 	private View view;
+	private int intervalBeforeTurbo = -1;
 
 	/**
 	 * Start the application by creating the Model and the View.
@@ -33,19 +42,41 @@ public class Controller extends Application implements ModelObserver, ViewObserv
 	public void start(Stage stage) {
 		this.model = new Model(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
 		this.model.addObserver(this);
-		this.view = new View(stage, SharedConstants.WINDOW_TITLE, SharedConstants.WINDOW_WIDTH, SharedConstants.WINDOW_HEIGHT, this );
+		this.view = new View(stage, SharedConstants.WINDOW_TITLE, SharedConstants.WINDOW_WIDTH, SharedConstants.WINDOW_HEIGHT, this, model.getProfiler());
+		// the startup menu opens this stage itself, so JavaFX never calls stop() on this controller
+		stage.setOnHidden(stopping(model));
+		this.model.start();
 	}
 
 	/**
-	 * Update the View when the Model changes.
+	 * Returns a handler that stops a model when the window showing it is hidden.
+	 *
+	 * @param model the model to stop
+	 * @return the handler for the hidden event of the window
+	 */
+	public static EventHandler<WindowEvent> stopping(Model model) {
+		return event -> model.stop();
+	}
+
+	/**
+	 * Stop the simulation when the application exits.
 	 */
 	@Override
-	public void onModelUpdated() {
-		ModelDTO latestDTO = model.getLatestModelDTO();
-		view.updateModel(latestDTO);
+	public void stop() {
+		if (model != null) { model.stop(); }
 	}
 
-	public ModelDTO getLatestModelDTO() { return model.getLatestModelDTO(); }
+	/**
+	 * Update the View when the Model changes.
+	 * Called on the delivery thread of this observer, which waits until the JavaFX thread has shown
+	 * the snapshot: while the view is busy, the model merges the following ticks instead of queueing them.
+	 *
+	 * @param modelDTO the snapshot of the latest cycle
+	 */
+	@Override
+	public void onModelUpdated(ModelDTO modelDTO) {
+		CompletableFuture.runAsync(() -> view.updateModel(modelDTO), Platform::runLater).join();
+	}
 
 	/**
 	 * Update the Model when the View sends commands.
@@ -57,20 +88,62 @@ public class Controller extends Application implements ModelObserver, ViewObserv
 		switch (viewDTO.getCommand().getType()) {
 			case SPEED:
 				ViewDTO.SpeedCommand speedCmd = (ViewDTO.SpeedCommand) viewDTO.getCommand();
-				int current = model.getUpdateInterval();
-				int newInterval = (speedCmd.getDelta() < 0) ? Math.max(100, current - 100) : Math.min(1500, current + 100);
-				model.setUpdateInterval(newInterval);
+				if (speedCmd.getDelta() < 0) { speedUp(); }
+				else { slowDown(); }
+				break;
+			case TURBO:
+				ViewDTO.TurboCommand turboCmd = (ViewDTO.TurboCommand) viewDTO.getCommand();
+				setTurbo(turboCmd.isEnabled());
 				break;
 			case TILE_CLICK:
 				ViewDTO.EntityTileClickCommand clickCmd = (ViewDTO.EntityTileClickCommand) viewDTO.getCommand();
-				String actions = model.getTileActions(clickCmd.getTileX(), clickCmd.getTileY());
-				view.setActionText(actions);
+				model.requestTileActions(clickCmd.getTileX(), clickCmd.getTileY())
+					.thenAccept(actions -> Platform.runLater(() -> view.setActionText(actions)));
+				break;
+			case VIEWPORT:
+				ViewDTO.ViewportCommand viewportCmd = (ViewDTO.ViewportCommand) viewDTO.getCommand();
+				model.setViewport(viewportCmd.getMinX(), viewportCmd.getMinY(), viewportCmd.getMaxX(), viewportCmd.getMaxY());
 				break;
 			default:
 				break;
 		}
 	}
 
+	/**
+	 * Shortens the update interval down to its minimum, then runs more cycles per update,
+	 * doubling them up to the configured maximum.
+	 */
+	private void speedUp() {
+		int interval = model.getUpdateInterval();
+		if (interval > MIN_UPDATE_INTERVAL) { model.setUpdateInterval(Math.max(MIN_UPDATE_INTERVAL, interval - UPDATE_INTERVAL_STEP)); }
+		else if (interval > 0) { model.setTicksPerUpdate(Math.min(SharedConstants.MODEL_TURBO_MAX_TICKS, model.getTicksPerUpdate() * 2)); }
+	}
+
+	/**
+	 * Undoes {@link #speedUp()}: first fewer cycles per update, then a longer interval.
+	 */
+	private void slowDown() {
+		if (model.getUpdateInterval() == 0) { return; }
+		if (model.getTicksPerUpdate() > 1) { model.setTicksPerUpdate(model.getTicksPerUpdate() / 2); }
+		else { model.setUpdateInterval(Math.min(MAX_UPDATE_INTERVAL, model.getUpdateInterval() + UPDATE_INTERVAL_STEP)); }
+	}
+
+	/**
+	 * Runs the model flat out, one cycle per update with no wait, or goes back to the previous speed.
+	 *
+	 * @param enabled whether fast-forward should be on
+	 */
+	private void setTurbo(boolean enabled) {
+		if (enabled && intervalBeforeTurbo < 0) {
+			intervalBeforeTurbo = model.getUpdateInterval();
+			model.setUpdateInterval(0);
+		}
+		else if (!enabled && intervalBeforeTurbo >= 0) {
+			model.setUpdateInterval(intervalBeforeTurbo);
+			intervalBeforeTurbo = -1;
+		}
+	}
+
 	public Model getModel() { return model; }
 	public void setModel(Model model) { this.model = model; }
 	public View getView() { return view; }
@@ -1,27 +1,46 @@
 package it.unibo.bazinga.controller.observer;
 
-import it.unibo.bazinga.model.world.World;
-import java.util.Map;
+import it.unibo.bazinga.model.entity.Species;
 
 /**
- * Data Transfer Object that contains the model data to be sent to the view.
- * Contains the grid and the actions of the entities.
+ * Immutable Data Transfer Object that contains the model data to be sent to the view.
+ * Contains the terrain, the changes to the entities since the previous DTO and the population counts
+ * after the tick it was built on.
  */
 public class ModelDTO {
-	private final World grid;
-	private final Map<Integer,String> entityActions;
+	private final TerrainSnapshot terrain;
+	private final ModelDelta delta;
+	private final int[] counts;
+	private final long tick;
 
 	/**
 	 * Constructor.
 	 *
-	 * @param grid the grid.
-	 * @param entityActions the actions of the entities.
+	 * @param terrain the terrain.
+	 * @param delta the changes to the entities since the previous DTO.
+	 * @param counts the number of living entities, indexed by species ordinal; not copied.
+	 * @param tick the number of ticks run when the DTO was built.
 	 */
-	public ModelDTO(World grid, Map<Integer,String> entityActions) {
-		this.grid = grid;
-		this.entityActions = entityActions;
+	public ModelDTO(TerrainSnapshot terrain, ModelDelta delta, int[] counts, long tick) {
+		this.terrain = terrain;
+		this.delta = delta;
+		this.counts = counts;
+		this.tick = tick;
 	}
 
-	public World getGrid() { return grid; }
-	public Map<Integer,String> getEntityActions() { return entityActions; }
+	public TerrainSnapshot getTerrain() { return terrain; }
+	public ModelDelta getDelta() { return delta; }
+	public int getCount(Species species) { return counts[species.ordinal()]; }
+	public long getTick() { return tick; }
+
+	/**
+	 * Returns a DTO with the same state and other changes, so that a consumer that missed
+	 * earlier DTOs can be handed all of their changes at once.
+	 *
+	 * @param changes the changes to carry instead of the ones of this DTO.
+	 * @return the new DTO.
+	 */
+	public ModelDTO withDelta(ModelDelta changes) {
+		return new ModelDTO(terrain, changes, counts, tick);
+	}
 }
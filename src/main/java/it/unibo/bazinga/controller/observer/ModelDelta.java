@@ -0,0 +1,55 @@
+package it.unibo.bazinga.controller.observer;
+
+import it.unibo.bazinga.model.entity.EntityAction;
+import it.unibo.bazinga.model.entity.Species;
+
+/**
+ * Changes to the population since the previous snapshot, in the order they happened.
+ * Records are packed in a single int array, {@value #STRIDE} ints each:
+ * kind, entity id, x, y and two arguments whose meaning depends on the kind.
+ */
+public class ModelDelta {
+	/** Number of ints per record. */
+	public static final int STRIDE = 6;
+	/** Delta without changes. */
+	public static final ModelDelta EMPTY = new ModelDelta(new int[0], 0);
+	private static final Kind[] KINDS = Kind.values();
+	private final int[] records;
+	private final int size;
+
+	/**
+	 * The kind of a change.
+	 */
+	public enum Kind {
+		/** An entity appeared at (x, y); arguments: species code, z-index. */
+		SPAWN,
+		/** An entity moved to (x, y); arguments: old x, old y. */
+		MOVE,
+		/** An entity left (x, y), because it died or because its chunk was evicted from a streamed world; no arguments. */
+		DIE,
+		/** An entity at (x, y) changed action; arguments: action code. */
+		ACTION
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param records the packed records.
+	 * @param size the number of records.
+	 */
+	public ModelDelta(int[] records, int size) {
+		this.records = records;
+		this.size = size;
+	}
+
+	public int size() { return size; }
+	public Kind getKind(int i) { return KINDS[records[i * STRIDE]]; }
+	public int getEntityId(int i) { return records[i * STRIDE + 1]; }
+	public int getX(int i) { return records[i * STRIDE + 2]; }
+	public int getY(int i) { return records[i * STRIDE + 3]; }
+	public Species getSpecies(int i) { return Species.fromCode(records[i * STRIDE + 4]); }
+	public int getZIndex(int i) { return records[i * STRIDE + 5]; }
+	public int getOldX(int i) { return records[i * STRIDE + 4]; }
+	public int getOldY(int i) { return records[i * STRIDE + 5]; }
+	public EntityAction getAction(int i) { return EntityAction.fromCode(records[i * STRIDE + 4]); }
+}
@@ -2,7 +2,16 @@ package it.unibo.bazinga.controller.observer;
 
 /**
  * Interface for the observer of the model.
+ * Each observer is notified on a delivery thread of its own, never on the simulation thread;
+ * while it is busy, later snapshots are merged into one, so a slow observer only sees fewer,
+ * larger updates.
  */
 public interface ModelObserver {
-	void onModelUpdated();
+
+	/**
+	 * Called with the changes since the previous notification of this observer.
+	 *
+	 * @param modelDTO the snapshot of the latest cycle
+	 */
+	void onModelUpdated(ModelDTO modelDTO);
 }
@@ -0,0 +1,89 @@
+package it.unibo.bazinga.controller.observer;
+
+import it.unibo.bazinga.model.world.World;
+
+/**
+ * Immutable copy of the terrain of a world, safe to read from any thread.
+ * The copy is kept chunk by chunk: chunks that are all land share one empty block, chunks of a streamed
+ * world that are not generated have none, and a new snapshot reuses the blocks of the previous one
+ * for the chunks that did not change.
+ */
+public class TerrainSnapshot {
+	private static final int WATER = World.Tile.TileType.WATER.ordinal();
+	private static final byte[] ALL_LAND = new byte[World.CHUNK_SIZE * World.CHUNK_SIZE];
+	private final int width;
+	private final int height;
+	private final int chunksY;
+	private final long version;
+	private final long[] stamps;
+	private final byte[][] chunks;
+
+	/**
+	 * Copies the terrain of the given world.
+	 *
+	 * @param world the world to copy.
+	 */
+	public TerrainSnapshot(World world) {
+		this(world, null);
+	}
+
+	/**
+	 * Copies the terrain of the given world, sharing the chunks that did not change since a previous copy.
+	 *
+	 * @param world the world to copy.
+	 * @param previous an earlier copy of the same world, or null.
+	 */
+	public TerrainSnapshot(World world, TerrainSnapshot previous) {
+		this.width = world.getWidth();
+		this.height = world.getHeight();
+		this.chunksY = world.getChunksY();
+		this.version = world.getTerrainVersion();
+		this.stamps = new long[world.getChunksX() * chunksY];
+		this.chunks = new byte[stamps.length][];
+		for (int cx = 0; cx < world.getChunksX(); cx++) {
+			for (int cy = 0; cy < chunksY; cy++) {
+				int index = cx * chunksY + cy;
+				if (!world.isChunkGenerated(cx, cy)) { continue; }
+				stamps[index] = world.getChunkTerrainStamp(cx, cy);
+				if (stamps[index] == 0) { chunks[index] = ALL_LAND; }
+				else if (previous != null && previous.stamps[index] == stamps[index]) { chunks[index] = previous.chunks[index]; }
+				else { chunks[index] = world.copyChunkTerrain(cx, cy); }
+			}
+		}
+	}
+
+	public int getWidth() { return width; }
+	public int getHeight() { return height; }
+
+	/**
+	 * Returns the version of the terrain of the world when it was copied.
+	 *
+	 * @return the terrain version.
+	 */
+	public long getVersion() { return version; }
+
+	/**
+	 * Returns whether the tile at the given coordinates is water.
+	 *
+	 * @param x the x-coordinate of the tile.
+	 * @param y the y-coordinate of the tile.
+	 * @return true if the tile is water, false if it is land, not generated or out of bounds.
+	 */
+	public boolean isWater(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) { return false; }
+		byte[] chunk = chunks[(x >> World.CHUNK_BITS) * chunksY + (y >> World.CHUNK_BITS)];
+		int mask = World.CHUNK_SIZE - 1;
+		return chunk != null && chunk[(x & mask) << World.CHUNK_BITS | (y & mask)] == WATER;
+	}
+
+	/**
+	 * Returns whether the tile at the given coordinates was generated when the terrain was copied.
+	 *
+	 * @param x the x-coordinate of the tile.
+	 * @param y the y-coordinate of the tile.
+	 * @return true if the tile was generated, false if not or out of bounds.
+	 */
+	public boolean isGenerated(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height && chunks[(x >> World.CHUNK_BITS) * chunksY + (y >> World.CHUNK_BITS)] != null;
+	}
+}
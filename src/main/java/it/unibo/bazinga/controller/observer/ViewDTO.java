@@ -14,7 +14,7 @@ public class ViewDTO {
 	 * Represents a view's command for the model (speed, tile click, ... ).
 	 */
 	public static abstract class Command {
-		public enum Type { SPEED, TILE_CLICK }
+		public enum Type { SPEED, TURBO, TILE_CLICK, VIEWPORT }
 		private final Type type;
 		protected Command(Type type) { this.type = type; }
 		public Type getType() { return type; }
@@ -29,6 +29,38 @@ public class ViewDTO {
 		public int getDelta() { return delta; }
 	}
 
+	/**
+	 * Command to switch fast-forward on or off: the model runs as fast as it can
+	 * and the view only samples the snapshots it has time to show.
+	 */
+	public static class TurboCommand extends Command {
+		private final boolean enabled;
+		public TurboCommand(boolean enabled) { super(Type.TURBO); this.enabled = enabled; }
+		public boolean isEnabled() { return enabled; }
+	}
+
+	/**
+	 * Command to tell the model which tiles the camera shows, as a box in grid coordinates.
+	 */
+	public static class ViewportCommand extends Command {
+		private final int minX;
+		private final int minY;
+		private final int maxX;
+		private final int maxY;
+		public ViewportCommand(int minX, int minY, int maxX, int maxY) {
+			super(Type.VIEWPORT);
+			this.minX = minX;
+			this.minY = minY;
+			this.maxX = maxX;
+			this.maxY = maxY;
+		}
+
+		public int getMinX() { return minX; }
+		public int getMinY() { return minY; }
+		public int getMaxX() { return maxX; }
+		public int getMaxY() { return maxY; }
+	}
+
 	/**
 	 * Command to notify the controller that the user clicked on a tile.
 	 */
@@ -0,0 +1,160 @@
+package it.unibo.bazinga.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unibo.bazinga.controller.observer.ModelDelta;
+
+/**
+ * Folds consecutive deltas into the smallest one with the same effect, keeping one entry per entity:
+ * its latest position and action, and nothing at all for an entity that appeared and left in between.
+ * The size of the result is bounded by the population rather than by the number of deltas folded,
+ * so an observer that falls behind costs memory in proportion to the world, not to the time it is late.
+ */
+class DeltaCoalescer {
+	// in order of first change, so entities keep the relative order their records had
+	private final Map<Integer, Entry> entries = new LinkedHashMap<>();
+	// entities that came and left within the delta being folded, kept until its end to absorb their last records
+	private final List<Integer> vanished = new ArrayList<>();
+
+	/**
+	 * Folds the records of a delta into the changes gathered so far.
+	 *
+	 * @param delta the changes that happened after the ones already folded
+	 */
+	void add(ModelDelta delta) {
+		for (int i = 0; i < delta.size(); i++) {
+			int id = delta.getEntityId(i);
+			Entry entry = entries.get(id);
+			switch (delta.getKind(i)) {
+				case SPAWN:
+					if (entry == null) {
+						entry = new Entry();
+						entries.put(id, entry);
+					}
+					entry.spawn(delta.getX(i), delta.getY(i), delta.getSpecies(i).ordinal(), delta.getZIndex(i));
+					break;
+				case MOVE:
+					if (entry == null) { entry = existing(id); }
+					if (!entry.present) { break; }
+					if (!entry.spawned && !entry.moved) {
+						entry.oldX = delta.getOldX(i);
+						entry.oldY = delta.getOldY(i);
+						entry.moved = true;
+					}
+					entry.x = delta.getX(i);
+					entry.y = delta.getY(i);
+					break;
+				case DIE:
+					if (entry == null) { entry = existing(id); }
+					if (entry.spawned) {
+						// gone in the same window it came: nothing to tell, unless an older life left before
+						entry.present = false;
+						entry.spawned = false;
+						entry.acted = false;
+						if (!entry.existed) { vanished.add(id); }
+					}
+					else if (entry.present) {
+						entry.removed = true;
+						entry.present = false;
+						entry.moved = false;
+						entry.acted = false;
+						entry.leftX = delta.getX(i);
+						entry.leftY = delta.getY(i);
+					}
+					break;
+				default:
+					if (entry == null) { entry = existing(id); }
+					if (!entry.present) { break; }
+					entry.x = delta.getX(i);
+					entry.y = delta.getY(i);
+					entry.action = delta.getAction(i).code();
+					entry.acted = true;
+					break;
+			}
+		}
+		// an entity may still move in the tick it dies, so only now is it safe to forget the ones that vanished
+		for (Integer id : vanished) {
+			Entry entry = entries.get(id);
+			if (entry != null && !entry.existed && !entry.present) { entries.remove(id); }
+		}
+		vanished.clear();
+	}
+
+	// the entry of an entity already in the world when folding started
+	private Entry existing(int id) {
+		Entry entry = new Entry();
+		entry.existed = true;
+		entry.present = true;
+		entries.put(id, entry);
+		return entry;
+	}
+
+	/**
+	 * Returns the folded changes and starts over.
+	 *
+	 * @return one delta with the same effect as all the deltas added since the previous call
+	 */
+	ModelDelta drain() {
+		int[] records = new int[entries.size() * 3 * ModelDelta.STRIDE];
+		int size = 0;
+		for (Map.Entry<Integer, Entry> next : entries.entrySet()) {
+			int id = next.getKey();
+			Entry entry = next.getValue();
+			if (entry.removed) { size = put(records, size, ModelDelta.Kind.DIE, id, entry.leftX, entry.leftY, 0, 0); }
+			if (entry.present) {
+				if (entry.spawned) { size = put(records, size, ModelDelta.Kind.SPAWN, id, entry.x, entry.y, entry.species, entry.zIndex); }
+				else if (entry.moved) { size = put(records, size, ModelDelta.Kind.MOVE, id, entry.x, entry.y, entry.oldX, entry.oldY); }
+				if (entry.acted) { size = put(records, size, ModelDelta.Kind.ACTION, id, entry.x, entry.y, entry.action, 0); }
+			}
+		}
+		entries.clear();
+		return new ModelDelta(Arrays.copyOf(records, size * ModelDelta.STRIDE), size);
+	}
+
+	// write one record and return the new number of records
+	private static int put(int[] records, int size, ModelDelta.Kind kind, int id, int x, int y, int arg1, int arg2) {
+		int base = size * ModelDelta.STRIDE;
+		records[base] = kind.ordinal();
+		records[base + 1] = id;
+		records[base + 2] = x;
+		records[base + 3] = y;
+		records[base + 4] = arg1;
+		records[base + 5] = arg2;
+		return size + 1;
+	}
+
+	// what is known about one entity: whether it was there before folding started, left, came (back), moved or acted
+	private static final class Entry {
+		private boolean existed;
+		private boolean removed;
+		private boolean present;
+		private boolean spawned;
+		private boolean moved;
+		private boolean acted;
+		private int x;
+		private int y;
+		private int oldX;
+		private int oldY;
+		private int leftX;
+		private int leftY;
+		private int species;
+		private int zIndex;
+		private int action;
+
+		// the entity (re)appeared: a new life with no movement nor action of its own yet
+		private void spawn(int x, int y, int species, int zIndex) {
+			present = true;
+			spawned = true;
+			moved = false;
+			acted = false;
+			this.x = x;
+			this.y = y;
+			this.species = species;
+			this.zIndex = zIndex;
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package it.unibo.bazinga.model;
+
+import java.util.Arrays;
+
+import it.unibo.bazinga.controller.observer.ModelDelta;
+import it.unibo.bazinga.model.entity.BasicEntity;
+import it.unibo.bazinga.model.entity.EntityAction;
+import it.unibo.bazinga.model.entity.EntityListener;
+import it.unibo.bazinga.model.entity.Species;
+
+/**
+ * Records the changes to the population as packed delta records, and keeps the number of
+ * living entities of each species up to date from them.
+ */
+public class DeltaRecorder implements EntityListener {
+	private int[] records = new int[64 * ModelDelta.STRIDE];
+	private int size;
+	private final int[] counts = new int[Species.values().length];
+
+	/**
+	 * Records every given entity as a spawn, so that a view starting from nothing
+	 * can rebuild the current population.
+	 *
+	 * @param entities the living entities
+	 */
+	public void spawnAll(Iterable<BasicEntity> entities) {
+		for (BasicEntity e : entities) {
+			if (!e.isAlive()) { continue; }
+			onSpawn(e);
+			if (e.getLastAction() != EntityAction.IDLE) { onActionChanged(e); }
+		}
+	}
+
+	@Override
+	public void onSpawn(BasicEntity entity) {
+		counts[entity.getSpecies().ordinal()]++;
+		append(ModelDelta.Kind.SPAWN, entity, entity.getSpecies().ordinal(), entity.getZIndex());
+	}
+
+	@Override
+	public void onMove(BasicEntity entity, int oldX, int oldY) {
+		append(ModelDelta.Kind.MOVE, entity, oldX, oldY);
+	}
+
+	@Override
+	public void onDeath(BasicEntity entity) {
+		counts[entity.getSpecies().ordinal()]--;
+		append(ModelDelta.Kind.DIE, entity, 0, 0);
+	}
+
+	@Override
+	public void onActionChanged(BasicEntity entity) {
+		append(ModelDelta.Kind.ACTION, entity, entity.getLastAction().code(), 0);
+	}
+
+	/**
+	 * Returns the changes recorded since the previous call and starts a new delta.
+	 *
+	 * @return the recorded changes
+	 */
+	public ModelDelta drain() {
+		if (size == 0) { return ModelDelta.EMPTY; }
+		ModelDelta delta = new ModelDelta(Arrays.copyOf(records, size * ModelDelta.STRIDE), size);
+		size = 0;
+		return delta;
+	}
+
+	/**
+	 * Forgets the changes recorded since the previous drain, for when nobody is listening.
+	 */
+	public void discard() {
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of living entities of the given species.
+	 *
+	 * @param species the species
+	 * @return the population of the species
+	 */
+	public int getCount(Species species) {
+		return counts[species.ordinal()];
+	}
+
+	// add one record at the end of the buffer
+	private void append(ModelDelta.Kind kind, BasicEntity entity, int arg1, int arg2) {
+		int base = size * ModelDelta.STRIDE;
+		if (base + ModelDelta.STRIDE > records.length) { records = Arrays.copyOf(records, records.length * 2); }
+		records[base] = kind.ordinal();
+		records[base + 1] = entity.getId();
+		records[base + 2] = entity.getX();
+		records[base + 3] = entity.getY();
+		records[base + 4] = arg1;
+		records[base + 5] = arg2;
+		size++;
+	}
+}
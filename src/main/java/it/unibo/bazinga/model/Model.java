@@ -1,50 +1,67 @@
 package it.unibo.bazinga.model;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
 
 import it.unibo.bazinga.common.SharedConstants;
+import it.unibo.bazinga.common.TickProfiler;
 import it.unibo.bazinga.controller.observer.ModelDTO;
 import it.unibo.bazinga.controller.observer.ModelObserver;
+import it.unibo.bazinga.controller.observer.TerrainSnapshot;
 import it.unibo.bazinga.model.entity.BasicEntity;
 import it.unibo.bazinga.model.entity.EntityManager;
+import it.unibo.bazinga.model.entity.Species;
+import it.unibo.bazinga.model.world.ChunkStreamer;
 import it.unibo.bazinga.model.world.World;
-import it.unibo.bazinga.model.world.WorldManager;
-import javafx.animation.AnimationTimer;
 
 /**
  * Core of the application, manages the simulation and the entities.
+ * The simulation runs on its own thread; after each tick it hands an immutable ModelDTO to every
+ * observer through its own ObserverChannel, so readers never see the live world and never hold the simulation up. Work that must read the
+ * live world, such as inspecting a tile, is queued and run on the simulation thread between ticks.
  */
 public class Model {
+	private final SimulationEngine engine;
 	private final World grid;
 	private final EntityManager entityManager;
-	private final List<ModelObserver> observers = new ArrayList<>();
-	private long lastUpdate = 0;
-	private int updateInterval;
+	private final List<ObserverChannel> observers = new CopyOnWriteArrayList<>();
+	private final DeltaRecorder deltaRecorder = new DeltaRecorder();
+	private TerrainSnapshot terrain;
+	private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+	private volatile int updateInterval;
+	private volatile int ticksPerUpdate = 1;
+	private volatile Thread simulationThread;
+	private boolean stopped;
 
 	/**
-	 * Creates a new grid with the given dimensions and starts the simulation.
+	 * Creates a new grid with the given dimensions; call {@link #start()} to run the simulation.
 	 *
 	 * @param width the width of the grid
 	 * @param height the height of the grid
 	 */
 	public Model(int width, int height) {
-		this.grid = WorldManager.generateGrid(width, height);
-		this.entityManager = new EntityManager(grid);
-		this.entityManager.generateInitialEntities();
+		this.engine = new SimulationEngine(width, height);
+		this.grid = engine.getWorld();
+		this.entityManager = engine.getEntityManager();
+		this.terrain = new TerrainSnapshot(grid);
+		deltaRecorder.spawnAll(entityManager.getEntities());
+		entityManager.setListener(deltaRecorder);
 		this.updateInterval = SharedConstants.ENTITY_UPDATE_INTERVAL;
-		startSimulation();
 	}
 
 	/**
 	 * Adds an observer to the model.
+	 * The first notification carries every change since the model was created or the previous
+	 * notification of any observer, so observers should be added before {@link #start()}.
 	 *
 	 * @param observer the observer to add
 	 */
 	public void addObserver(ModelObserver observer) {
-		observers.add(observer);
+		observers.add(new ObserverChannel(observer));
 	}
 
 	/**
@@ -53,60 +70,160 @@ public class Model {
 	 * @param observer the observer to remove
 	 */
 	public void removeObserver(ModelObserver observer) {
-		observers.remove(observer);
+		for (ObserverChannel channel : observers) {
+			if (channel.getObserver() == observer) {
+				observers.remove(channel);
+				channel.close();
+			}
+		}
 	}
 
 	/**
-	 * Notifies all observers that the model has been updated.
+	 * Hands the snapshot of the last cycle to all observers without waiting for any of them.
+	 *
+	 * @param dto the snapshot of the last cycle
 	 */
-	private void notifyObservers() {
-		for (ModelObserver observer : observers) { observer.onModelUpdated(); }
+	private void notifyObservers(ModelDTO dto) {
+		for (ObserverChannel channel : observers) { channel.offer(dto); }
 	}
 
 	/**
-	 * Starts the simulation loop.
+	 * Starts the simulation thread, which runs {@link #getTicksPerUpdate()} cycles every update interval,
+	 * or as fast as it can when the interval is 0.
 	 */
-	private void startSimulation() {
-		new AnimationTimer() {
-			@Override
-			public void handle(long now) {
-				if (now - lastUpdate >= updateInterval * 1_000_000) { updateSimulation(); lastUpdate = now; }
-			}
-		}.start();
+	public synchronized void start() {
+		if (simulationThread != null || stopped) { return; }
+		simulationThread = new Thread(this::runSimulation, "simulation");
+		simulationThread.setDaemon(true);
+		simulationThread.start();
+	}
+
+	/**
+	 * Stops the simulation thread after the current cycle, closes the engine so that mapped storage
+	 * reaches its files, then closes the observer channels once they have delivered the last snapshot.
+	 * A stopped model cannot be started again.
+	 */
+	public synchronized void stop() {
+		if (stopped) { return; }
+		stopped = true;
+		Thread thread = simulationThread;
+		if (thread != null) {
+			simulationThread = null;
+			thread.interrupt();
+			try { thread.join(); }
+			catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+		}
+		engine.close();
+		for (ObserverChannel channel : observers) { channel.close(); }
 	}
 
 	/**
-	 * Updates the simulation by one cycle.
+	 * Loop of the simulation thread: runs the queued commands, then one update, then waits for the next one.
+	 */
+	private void runSimulation() {
+		long nextTick = System.nanoTime();
+		while (!Thread.currentThread().isInterrupted()) {
+			runCommands();
+			updateSimulation();
+			nextTick += updateInterval * 1_000_000L;
+			long wait = nextTick - System.nanoTime();
+			if (wait > 0) { LockSupport.parkNanos(this, wait); }
+			else { nextTick = System.nanoTime(); }
+		}
+	}
+
+	/**
+	 * Advances the simulation by the configured number of cycles and publishes one snapshot for all of them.
+	 * The snapshot is only built when some observer is ready to take it; otherwise the changes keep
+	 * accumulating in the recorder and go out with the next snapshot.
 	 */
 	private void updateSimulation() {
-		entityManager.updateCycle();
-		notifyObservers();
+		engine.step(ticksPerUpdate);
+		if (observers.isEmpty()) { discardChanges(); }
+		else if (anyObserverReady()) {
+			long t = getProfiler().start();
+			ModelDTO dto = buildModelDTO();
+			getProfiler().lap(TickProfiler.Phase.BUILD_DTO, t);
+			notifyObservers(dto);
+		}
+	}
+
+	private boolean anyObserverReady() {
+		for (ObserverChannel channel : observers) {
+			if (channel.isReady()) { return true; }
+		}
+		return false;
 	}
 
+	/**
+	 * Runs the commands queued by other threads.
+	 */
+	private void runCommands() {
+		Runnable command;
+		while ((command = commands.poll()) != null) { command.run(); }
+	}
+
+	public boolean isRunning() { return simulationThread != null; }
 	public void setUpdateInterval(int interval) { this.updateInterval = interval; }
 	public int getUpdateInterval() { return updateInterval; }
+	public void setTicksPerUpdate(int ticks) { this.ticksPerUpdate = Math.max(1, ticks); }
+	public int getTicksPerUpdate() { return ticksPerUpdate; }
 	public World getGrid() { return grid; }
+	public SimulationEngine getEngine() { return engine; }
+	public TickProfiler getProfiler() { return entityManager.getProfiler(); }
 
-	public ModelDTO getLatestModelDTO() {
-		Map<Integer,String> entityActions = new HashMap<>();
-		for (BasicEntity e : entityManager.getEntities()) {
-			if (e.isAlive()) { entityActions.put(e.getId(), getActionString(e)); }
-		}
-		return new ModelDTO(grid, entityActions);
+	/**
+	 * Builds a snapshot carrying the changes recorded since the previous one.
+	 * Package-private so that the benchmarks can measure it apart from the simulation thread.
+	 *
+	 * @return the new snapshot
+	 */
+	ModelDTO buildModelDTO() {
+		int[] counts = new int[Species.values().length];
+		for (Species species : Species.values()) { counts[species.ordinal()] = deltaRecorder.getCount(species); }
+		if (terrain.getVersion() != grid.getTerrainVersion()) { terrain = new TerrainSnapshot(grid, terrain); }
+		return new ModelDTO(terrain, deltaRecorder.drain(), counts, engine.getTickCount());
+	}
+
+	/**
+	 * Forgets the changes recorded since the previous snapshot, for when nobody is listening.
+	 * Package-private so that the benchmarks can step the simulation the way the simulation thread does.
+	 */
+	void discardChanges() {
+		deltaRecorder.discard();
 	}
 
-	private BasicEntity findEntityById(int id) {
-		for (BasicEntity e : entityManager.getEntities()) { if (e.getId() == id) { return e; } }
-		return null;
+	/**
+	 * Tells the model which tiles the camera shows, so that a streamed world generates them and keeps them;
+	 * does nothing for a world generated up front.
+	 *
+	 * @param minX the smallest x-coordinate in view
+	 * @param minY the smallest y-coordinate in view
+	 * @param maxX the largest x-coordinate in view
+	 * @param maxY the largest y-coordinate in view
+	 */
+	public void setViewport(int minX, int minY, int maxX, int maxY) {
+		ChunkStreamer streamer = engine.getStreamer();
+		if (streamer == null) { return; }
+		if (simulationThread == null) { streamer.setViewport(minX, minY, maxX, maxY); }
+		else { commands.add(() -> streamer.setViewport(minX, minY, maxX, maxY)); }
 	}
 
-	private String getActionString(BasicEntity e) {
-		BasicEntity.Request req = e.getNextRequest();
-		if (req == null) { return "IDLE"; }
-		return req.toActionString(e, this::findEntityById);
+	/**
+	 * Describes the entities on a tile, reading the world on the simulation thread between cycles.
+	 *
+	 * @param tileX the x-coordinate of the tile
+	 * @param tileY the y-coordinate of the tile
+	 * @return a future completed with the description
+	 */
+	public CompletableFuture<String> requestTileActions(int tileX, int tileY) {
+		CompletableFuture<String> result = new CompletableFuture<>();
+		if (simulationThread == null) { result.complete(getTileActions(tileX, tileY)); }
+		else { commands.add(() -> result.complete(getTileActions(tileX, tileY))); }
+		return result;
 	}
 
-	public String getTileActions(int tileX, int tileY) {
+	private String getTileActions(int tileX, int tileY) {
 		if (tileX < 0 || tileY < 0 || tileX >= grid.getWidth() || tileY >= grid.getHeight()) { return "Invalid tile"; }
 		World.Tile tile = grid.getTile(tileX, tileY);
 		if (tile.getEntities().isEmpty()) { return "no actions"; }
@@ -116,7 +233,7 @@ public class Model {
 			if (!entity.isAlive()) { continue; }
 			String entityName = getEntityName(entity);
 			int energy = entity.getEnergy();
-			String actionKey = getActionString(entity);
+			String actionKey = entity.getLastAction().name();
 
 			sb.append(entityName)
 				.append("(").append(energy).append("): ")
@@ -0,0 +1,103 @@
+package it.unibo.bazinga.model;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import it.unibo.bazinga.controller.observer.ModelDTO;
+import it.unibo.bazinga.controller.observer.ModelObserver;
+
+/**
+ * Delivers snapshots to one observer on a thread of its own, keeping only the latest value.
+ * Snapshots offered while the observer is still busy replace the pending one, and their changes
+ * are folded per entity into those of the snapshots they replaced, so a slow observer skips
+ * intermediate ticks without losing changes, and one that stops taking them holds at most
+ * one change set per entity instead of every record since it fell behind.
+ */
+class ObserverChannel {
+	private final ModelObserver observer;
+	private final ExecutorService executor;
+	// guarded by this: the latest snapshot not delivered yet, and the changes of every snapshot it replaced
+	private volatile ModelDTO pending;
+	private final DeltaCoalescer merged = new DeltaCoalescer();
+	private boolean merging;
+	private boolean scheduled;
+	private boolean closed;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param observer the observer to notify
+	 */
+	ObserverChannel(ModelObserver observer) {
+		this.observer = observer;
+		this.executor = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "model-observer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Hands a snapshot over to the observer without waiting for it.
+	 * Once the channel is closed the snapshot is dropped, so a simulation thread still walking
+	 * an older list of observers never hands work to a released delivery thread.
+	 *
+	 * @param dto the snapshot of the last cycle
+	 */
+	synchronized void offer(ModelDTO dto) {
+		if (closed) { return; }
+		if (pending != null) {
+			if (!merging) {
+				merged.add(pending.getDelta());
+				merging = true;
+			}
+			merged.add(dto.getDelta());
+		}
+		pending = dto;
+		if (scheduled) { return; }
+		scheduled = true;
+		// handed over under the lock, so that close() cannot shut the executor down in between
+		executor.execute(this::deliver);
+	}
+
+	/**
+	 * Runs on the delivery thread: notifies the observer until no snapshot is pending.
+	 */
+	private void deliver() {
+		for (ModelDTO dto = take(); dto != null; dto = take()) { observer.onModelUpdated(dto); }
+	}
+
+	// take the pending snapshot with all the merged changes, or clear the scheduled flag if there is none
+	private synchronized ModelDTO take() {
+		ModelDTO dto = pending;
+		if (dto == null) {
+			scheduled = false;
+			return null;
+		}
+		if (merging) {
+			dto = dto.withDelta(merged.drain());
+			merging = false;
+		}
+		pending = null;
+		return dto;
+	}
+
+	/**
+	 * Stops delivering once the snapshot pending, if any, has reached the observer, and releases the delivery thread.
+	 */
+	synchronized void close() {
+		closed = true;
+		executor.shutdown();
+	}
+
+	/**
+	 * Tells whether a new snapshot would reach the observer on its own rather than being merged into a pending one.
+	 *
+	 * @return true if no snapshot is waiting for the observer
+	 */
+	boolean isReady() {
+		return pending == null;
+	}
+
+	ModelObserver getObserver() { return observer; }
+}
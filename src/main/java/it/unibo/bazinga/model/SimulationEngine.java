@@ -0,0 +1,164 @@
+package it.unibo.bazinga.model;
+
+import java.time.Duration;
+
+import it.unibo.bazinga.common.SharedConstants;
+import it.unibo.bazinga.model.entity.EntityFactory;
+import it.unibo.bazinga.model.entity.EntityManager;
+import it.unibo.bazinga.model.world.ChunkStreamer;
+import it.unibo.bazinga.model.world.NoiseWorldGenerator;
+import it.unibo.bazinga.model.world.World;
+import it.unibo.bazinga.model.world.WorldManager;
+
+/**
+ * Headless fixed-step driver of the simulation.
+ * Wraps the world and its entity manager without depending on JavaFX, so the simulation
+ * can be stepped from tests, batch jobs or any front-end at whatever rate they need.
+ */
+public class SimulationEngine {
+	private final World world;
+	private final EntityManager entityManager;
+	private final ChunkStreamer streamer;
+	private volatile boolean running;
+	// set by stop() and cleared by the loop that honours it, so a stop issued before the loop starts is not lost
+	private volatile boolean stopRequested;
+	private long tickCount;
+
+	/**
+	 * Creates an engine over an existing world and entity manager.
+	 *
+	 * @param world the world to simulate
+	 * @param entityManager the entity manager that owns the entities of the world
+	 */
+	public SimulationEngine(World world, EntityManager entityManager) {
+		this(world, entityManager, null);
+	}
+
+	/**
+	 * Creates an engine over an existing world whose chunks are generated on demand.
+	 *
+	 * @param world the world to simulate
+	 * @param entityManager the entity manager that owns the entities of the world
+	 * @param streamer the streamer of the chunks of the world, or null if the world is generated already
+	 */
+	public SimulationEngine(World world, EntityManager entityManager, ChunkStreamer streamer) {
+		this.world = world;
+		this.entityManager = entityManager;
+		this.streamer = streamer;
+	}
+
+	/**
+	 * Generates a new world with the given dimensions, populates it and wraps it in an engine.
+	 * When streaming is configured, the world is {@code world.streaming.size} tiles wide instead and only
+	 * the chunks around its center are generated, where the animals start; every chunk grows its own plants.
+	 *
+	 * @param width the width of the world
+	 * @param height the height of the world
+	 */
+	public SimulationEngine(int width, int height) {
+		if (!SharedConstants.WORLD_STREAMING) {
+			this.world = WorldManager.generateGrid(width, height);
+			this.streamer = null;
+			this.entityManager = new EntityManager(world);
+			this.entityManager.generateInitialEntities();
+			return;
+		}
+		int size = SharedConstants.WORLD_STREAMING_SIZE, center = size / 2, reach = (SharedConstants.WORLD_STREAMING_RADIUS + 1) * World.CHUNK_SIZE;
+		this.world = World.streamed(size, size, SharedConstants.WORLD_SEED);
+		this.streamer = new ChunkStreamer(world, new NoiseWorldGenerator(SharedConstants.WORLD_SEED, 1), SharedConstants.WORLD_STREAMING_RADIUS,
+				SharedConstants.WORLD_STREAMING_IDLE_TICKS, SharedConstants.WORLD_GENERATOR_THREADS);
+		this.entityManager = new EntityManager(world);
+		streamer.setListener(entityManager);
+		// the center may fall in a sea: move along the diagonal until there is land for every animal
+		while (!generateStart(center, reach, SharedConstants.SHEEP_COUNT + SharedConstants.WOLF_COUNT)) {
+			center += 2 * reach;
+			if (center + reach >= size) { throw new IllegalStateException("No land for the animals in a streamed world of seed " + SharedConstants.WORLD_SEED); }
+		}
+		// the plants come with the chunks
+		new EntityFactory(world, center - reach, center - reach, center + reach, center + reach)
+				.generateInitialEntities(entityManager, 0, SharedConstants.SHEEP_COUNT, SharedConstants.WOLF_COUNT);
+	}
+
+	// generate the chunks around a start and tell whether they hold enough land for the given number of animals
+	private boolean generateStart(int center, int reach, int animals) {
+		streamer.generateAround(center, center);
+		int land = 0;
+		for (int x = center - reach; x <= center + reach; x++) {
+			for (int y = center - reach; y <= center + reach; y++) {
+				if (world.isGenerated(x, y) && !world.isWater(x, y)) { land++; }
+			}
+		}
+		return land >= animals;
+	}
+
+	/**
+	 * Advances the simulation by one tick.
+	 */
+	public void step() {
+		if (streamer != null) { streamer.update(tickCount); }
+		entityManager.updateCycle();
+		tickCount++;
+	}
+
+	/**
+	 * Advances the simulation by the given number of ticks.
+	 *
+	 * @param ticks the number of ticks to run
+	 */
+	public void step(int ticks) {
+		for (int i = 0; i < ticks; i++) { step(); }
+	}
+
+	/**
+	 * Runs the simulation as fast as possible for the given wall-clock duration,
+	 * or until {@link #stop()} is called.
+	 *
+	 * @param duration how long to run
+	 * @return the number of ticks executed
+	 */
+	public long runFor(Duration duration) {
+		long deadline = System.nanoTime() + duration.toNanos();
+		long start = tickCount;
+		running = true;
+		while (!stopRequested && System.nanoTime() < deadline) { step(); }
+		stopRequested = false;
+		running = false;
+		return tickCount - start;
+	}
+
+	/**
+	 * Runs the simulation as fast as possible until {@link #stop()} is called from another thread.
+	 *
+	 * @return the number of ticks executed
+	 */
+	public long run() {
+		long start = tickCount;
+		running = true;
+		while (!stopRequested) { step(); }
+		stopRequested = false;
+		running = false;
+		return tickCount - start;
+	}
+
+	/**
+	 * Asks a running {@link #run()} or {@link #runFor(Duration)} loop to return after the current tick;
+	 * if no loop is running yet, the next one returns right away.
+	 */
+	public void stop() { stopRequested = true; }
+
+	/**
+	 * Releases the engine once the simulation is over: stops the generation of chunks and writes
+	 * mapped storage through to its files. Call it after the last tick, from the thread that steps the engine.
+	 */
+	public void close() {
+		if (streamer != null) { streamer.close(); }
+		world.force();
+		entityManager.force();
+	}
+
+	public boolean isRunning() { return running; }
+	public long getTickCount() { return tickCount; }
+	public World getWorld() { return world; }
+	public EntityManager getEntityManager() { return entityManager; }
+	public ChunkStreamer getStreamer() { return streamer; }
+}
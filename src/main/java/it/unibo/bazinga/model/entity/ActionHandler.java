@@ -1,25 +1,56 @@
 package it.unibo.bazinga.model.entity;
 
+import it.unibo.bazinga.common.SharedConstants;
+import it.unibo.bazinga.model.jfr.BazingaEvent;
+import it.unibo.bazinga.model.jfr.EatEvent;
 import it.unibo.bazinga.model.world.World;
 import it.unibo.bazinga.model.world.World.Tile;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 
 /**
  * The ActionHandler class is responsible for handling the movement and interaction of entities.
  */
 public class ActionHandler {
+	private static final int PARALLEL_THRESHOLD = 256;
+	// one pool per number of decision threads, shared by every handler so that none has to be shut down;
+	// its workers are daemons and retire when idle
+	private static final Map<Integer, ForkJoinPool> DECISION_POOLS = new ConcurrentHashMap<>();
 	private final World world;
 	private final EntityManager entityManager;
+	private final ForkJoinPool decisionPool;
+	private final TileReservationTable reservations = new TileReservationTable();
+	private final IntFunction<BasicEntity> entityLookup;
 
 	/**
-	 * Constructor for ActionHandler with the given World and EntityManager.
+	 * Constructor for ActionHandler with the given World and EntityManager,
+	 * using the configured number of decision threads.
 	 *
 	 * @param world the World instance
 	 * @param entityManager the EntityManager instance
 	 */
 	public ActionHandler(World world, EntityManager entityManager) {
+		this(world, entityManager, SharedConstants.MODEL_DECISION_THREADS);
+	}
+
+	/**
+	 * Constructor for ActionHandler with the given World and EntityManager.
+	 * With more than one decision thread the entities decide their requests, and the requests
+	 * are validated, in parallel: both phases only read the world and the entity's own counters.
+	 *
+	 * @param world the World instance
+	 * @param entityManager the EntityManager instance
+	 * @param decisionThreads the number of threads used to collect requests, 1 for sequential
+	 */
+	public ActionHandler(World world, EntityManager entityManager, int decisionThreads) {
 		this.world = world;
 		this.entityManager = entityManager;
+		this.entityLookup = entityManager::getEntityById;
+		this.decisionPool = decisionThreads > 1 ? DECISION_POOLS.computeIfAbsent(decisionThreads, ForkJoinPool::new) : null;
 	}
 
 
@@ -27,46 +58,74 @@ public class ActionHandler {
 
 
 	/**
-	 * Collects the requests from the given entities.
+	 * Collects the requests from the given entities, in the order of the list.
+	 * The result is the same whether the decisions are taken sequentially or in parallel;
+	 * action changes are reported to the listener of the EntityManager in the same order.
 	 *
 	 * @param entities the list of entities
 	 */
 	public List<RequestWrapper> collectRequests(List<BasicEntity> entities) {
+		EntityListener listener = entityManager.getListener();
 		List<RequestWrapper> requests = new ArrayList<>();
-		for (BasicEntity e : entities) {
-			if (e.getMovementSpeed() > 0) {
-				e.incrementMoveCounter();
-				if (e.isTimeToMove()) {
-					BasicEntity.Request req = e.getNextRequest();
-					
-					if (req != null) { requests.add(new RequestWrapper(e, req)); }
-					e.resetMoveCounter();
-				}
+		if (!isParallel(entities.size())) {
+			for (BasicEntity e : entities) {
+				BasicEntity.Request req = decide(e);
+				if (e.takeActionChange()) { listener.onActionChanged(e); }
+				if (req != null) { requests.add(new RequestWrapper(e, req)); }
 			}
+			return requests;
+		}
+
+		BasicEntity.Request[] decided = new BasicEntity.Request[entities.size()];
+		forEachIndex(decided.length, i -> decided[i] = decide(entities.get(i)));
+		for (int i = 0; i < decided.length; i++) {
+			BasicEntity e = entities.get(i);
+			if (e.takeActionChange()) { listener.onActionChanged(e); }
+			if (decided[i] != null) { requests.add(new RequestWrapper(e, decided[i])); }
 		}
 		return requests;
 	}
 
+	/**
+	 * Advances the move counter of the given entity and asks it for a request when it is its turn.
+	 * The request is recorded on the entity, so the view can show it without deciding again.
+	 *
+	 * @param e the entity
+	 * @return the request of the entity, or null if it does not act this cycle
+	 */
+	private BasicEntity.Request decide(BasicEntity e) {
+		if (e.getMovementSpeed() <= 0) { return null; }
+		e.incrementMoveCounter();
+		if (!e.isTimeToMove()) { return null; }
+
+		BasicEntity.Request req = e.getNextRequest();
+		e.resetMoveCounter();
+		e.recordDecision(req, req == null ? EntityAction.IDLE : req.toAction(e, entityLookup));
+		return req;
+	}
+
 	/**
 	 * Validates the given requests and returns the approved actions.
+	 * Every request is checked against the state of the world at the start of the phase, and each
+	 * valid move claims its target tile; when several moves claim the same tile, the entity with the
+	 * lowest id gets it and the others are rejected, whatever the order of validation.
 	 *
 	 * @param requests the list of requests
 	 */
 	public List<Action> validateRequests(List<RequestWrapper> requests) {
+		reservations.reset(requests.size());
+		boolean[] valid = new boolean[requests.size()];
+		forEachIndex(valid.length, i -> valid[i] = validate(requests.get(i)));
+
 		List<Action> approvedActions = new ArrayList<>();
-		for (RequestWrapper rw : requests) {
-			boolean validated;
-			switch (rw.request.type) {
-				case MOVE:
-					validated = validateMove(rw.entity, rw.request.direction);
-					break;
-				case INTERACT:
-					validated = validateInteract(rw.entity, rw.request.targetId);
-					break;
-				default:
-					validated = false;
-					break;
-			};
+		for (int i = 0; i < valid.length; i++) {
+			RequestWrapper rw = requests.get(i);
+			boolean validated = valid[i];
+			if (validated && rw.request.type == BasicEntity.ActionType.MOVE) {
+				int newX = stepX(rw.entity.getX(), rw.request.direction);
+				int newY = stepY(rw.entity.getY(), rw.request.direction);
+				validated = reservations.isHeldBy(newX, newY, rw.entity.getId());
+			}
 
 			if (validated) { approvedActions.add(new Action(rw.entity, rw.request)); } 
 			else { rw.entity.transitionState(false); }
@@ -74,6 +133,23 @@ public class ActionHandler {
 		return approvedActions;
 	}
 
+	/**
+	 * Validates a single request, claiming the target tile of valid moves.
+	 *
+	 * @param rw the request
+	 * @return true if the request is valid on its own
+	 */
+	private boolean validate(RequestWrapper rw) {
+		switch (rw.request.type) {
+			case MOVE:
+				return validateMove(rw.entity, rw.request.direction);
+			case INTERACT:
+				return validateInteract(rw.entity, rw.request.targetId);
+			default:
+				return false;
+		}
+	}
+
 	/**
 	 * Processes the given actions.
 	 *
@@ -103,32 +179,17 @@ public class ActionHandler {
 	 *
 	 * @param entity the entity
 	 * @param dir the direction
-	 * @return true if the movement is valid, false otherwise
+	 * @return true if the movement is valid and the entity holds the claim on the target tile, false otherwise
 	 */
 	private boolean validateMove(BasicEntity entity, BasicEntity.Direction dir) {
-		int newX = entity.getX();
-		int newY = entity.getY();
-		switch (dir) {
-			case UP: 
-				newY--;
-				break;
-			case DOWN: 
-				newY++;
-				break;
-			case LEFT: 
-				newX--;
-				break;
-			case RIGHT:
-				newX++;
-				break;
-		}
+		int newX = stepX(entity.getX(), dir);
+		int newY = stepY(entity.getY(), dir);
 
-		Tile tile = world.getTile(newX, newY);
-		if (tile == null || entity.getEnergy() <= 0) { return false; }
-		if (!(entity instanceof WolfEntity) && tile.getType() == Tile.TileType.WATER) { return false; }
+		if (!world.isGenerated(newX, newY) || entity.getEnergy() <= 0) { return false; }
+		if (!(entity instanceof WolfEntity) && world.isWater(newX, newY)) { return false; }
 
-		boolean isBlocked = tile.getEntities().stream().anyMatch(e -> !(e instanceof PlantEntity) && e.isAlive());
-		return !isBlocked;
+		// dead animals have left their tile by now, so any animal bit means a living blocker
+		return !world.hasAnimal(newX, newY) && reservations.claim(newX, newY, entity.getId());
 	}
 
 	/**
@@ -141,8 +202,7 @@ public class ActionHandler {
 	private boolean validateInteract(BasicEntity entity, int targetId) {
 		BasicEntity target = entityManager.getEntityById(targetId);
 		if (target == null || !target.isAlive()) { return false; }
-		List<Tile> adjacent = getAdjacentTiles(entity.getX(), entity.getY());
-		return adjacent.stream().anyMatch(t -> t.getEntities().contains(target));
+		return Math.abs(target.getX() - entity.getX()) + Math.abs(target.getY() - entity.getY()) == 1;
 	}
 
 
@@ -157,31 +217,9 @@ public class ActionHandler {
 	 * @return true if the movement was successful, false otherwise
 	 */
 	private void processMove(BasicEntity entity, BasicEntity.Direction dir) {
-		int newX = entity.getX();
-		int newY = entity.getY();
-		switch (dir) {
-			case UP:
-				newY--;
-				break;
-			case DOWN:
-				newY++;
-				break;
-			case LEFT:
-				newX--;
-				break;
-			case RIGHT: 
-				newX++;
-				break;
-		}
-		Tile currentTile = world.getTile(entity.getX(), entity.getY());
-		Tile targetTile  = world.getTile(newX, newY);
-
-		if (targetTile != null) {
-			currentTile.removeEntity(entity);
-			entity.setPosition(newX, newY);
-			targetTile.addEntity(entity);
-			entity.subtractEnergy(1);
-		}
+		int newX = stepX(entity.getX(), dir);
+		int newY = stepY(entity.getY(), dir);
+		if (entityManager.moveEntity(entity, newX, newY)) { entity.subtractEnergy(1); }
 	}
 
 	/**
@@ -196,6 +234,7 @@ public class ActionHandler {
 
 		// EAT
 		if (entity.getPreyType() != null && entity.getPreyType().isInstance(target)) {
+			EatEvent.emit(entity, target);
 			entityManager.killEntity(target);
 			entity.addEnergy(entity.getEnergyRestore());
 			return;
@@ -219,6 +258,7 @@ public class ActionHandler {
 			BasicEntity offspring = parent1.spawnOffspring();
 			offspring.setPosition(freeTile.getX(), freeTile.getY());
 			entityManager.addEntity(offspring);
+			BazingaEvent.emit(offspring, parent1, parent2);
 
 			parent1.subtractEnergy(parent1.getEnergyBazinga());
 			parent2.subtractEnergy(parent2.getEnergyBazinga());
@@ -232,17 +272,62 @@ public class ActionHandler {
 
 
 	/**
-	 * Finds a free adjacent tile to the given coordinates.
+	 * Finds a free adjacent tile to the given coordinates, skipping tiles claimed by a move this cycle.
 	 *
 	 * @param x the x-coordinate
 	 * @param y the y-coordinate
 	 * @return the free adjacent tile, or null if none is found
 	 */
 	private Tile findFreeAdjacentTile(int x, int y) {
-		for (Tile t : getAdjacentTiles(x, y)) { if (t.getEntities().isEmpty()) { return t; } }
+		for (Tile t : getAdjacentTiles(x, y)) {
+			if (!world.isOccupied(t.getX(), t.getY()) && !reservations.isClaimed(t.getX(), t.getY()) && world.isGenerated(t.getX(), t.getY())) { return t; }
+		}
 		return null;
 	}
 
+	/**
+	 * Returns the x-coordinate reached by one step in the given direction.
+	 *
+	 * @param x the starting x-coordinate
+	 * @param dir the direction
+	 * @return the new x-coordinate
+	 */
+	private static int stepX(int x, BasicEntity.Direction dir) {
+		return dir == BasicEntity.Direction.LEFT ? x - 1 : dir == BasicEntity.Direction.RIGHT ? x + 1 : x;
+	}
+
+	/**
+	 * Returns the y-coordinate reached by one step in the given direction.
+	 *
+	 * @param y the starting y-coordinate
+	 * @param dir the direction
+	 * @return the new y-coordinate
+	 */
+	private static int stepY(int y, BasicEntity.Direction dir) {
+		return dir == BasicEntity.Direction.UP ? y - 1 : dir == BasicEntity.Direction.DOWN ? y + 1 : y;
+	}
+
+	/**
+	 * Returns whether a phase over the given number of items should run on the decision pool.
+	 *
+	 * @param size the number of items
+	 * @return true if the phase should run in parallel
+	 */
+	private boolean isParallel(int size) {
+		return decisionPool != null && size >= PARALLEL_THRESHOLD;
+	}
+
+	/**
+	 * Runs the given action for every index below the given size, on the decision pool when enabled.
+	 *
+	 * @param size the number of indices
+	 * @param action the action to run for each index
+	 */
+	private void forEachIndex(int size, IntConsumer action) {
+		if (isParallel(size)) { decisionPool.submit(() -> IntStream.range(0, size).parallel().forEach(action)).join(); }
+		else { for (int i = 0; i < size; i++) { action.accept(i); } }
+	}
+
 	/**
 	 * Returns a list of adjacent tiles to the given coordinates.
 	 *
@@ -0,0 +1,74 @@
+package it.unibo.bazinga.model.entity;
+
+import java.util.Arrays;
+
+/**
+ * {@link EntityStore} backed by primitive arrays on the Java heap.
+ */
+public class ArrayEntityStore implements EntityStore {
+	private static final int INITIAL_CAPACITY = 1024;
+	private BasicEntity[] handles = new BasicEntity[INITIAL_CAPACITY];
+	private byte[] species = new byte[INITIAL_CAPACITY];
+	private int[] xs = new int[INITIAL_CAPACITY];
+	private int[] ys = new int[INITIAL_CAPACITY];
+	private int[] energies = new int[INITIAL_CAPACITY];
+	private int[] moveCounters = new int[INITIAL_CAPACITY];
+	private int[] flags = new int[INITIAL_CAPACITY];
+	private int size;
+
+	@Override
+	public int add(BasicEntity handle, Species kind, int x, int y, int energy, int moveCounter, int entityFlags) {
+		if (size == handles.length) { grow(); }
+		int slot = size++;
+		handles[slot] = handle;
+		species[slot] = (byte) kind.ordinal();
+		xs[slot] = x;
+		ys[slot] = y;
+		energies[slot] = energy;
+		moveCounters[slot] = moveCounter;
+		flags[slot] = entityFlags;
+		return slot;
+	}
+
+	@Override
+	public void remove(int slot) {
+		int last = --size;
+		if (slot != last) {
+			handles[slot] = handles[last];
+			species[slot] = species[last];
+			xs[slot] = xs[last];
+			ys[slot] = ys[last];
+			energies[slot] = energies[last];
+			moveCounters[slot] = moveCounters[last];
+			flags[slot] = flags[last];
+			handles[slot].relocate(slot);
+		}
+		handles[last] = null;
+	}
+
+	// double the capacity of every column
+	private void grow() {
+		int capacity = handles.length * 2;
+		handles = Arrays.copyOf(handles, capacity);
+		species = Arrays.copyOf(species, capacity);
+		xs = Arrays.copyOf(xs, capacity);
+		ys = Arrays.copyOf(ys, capacity);
+		energies = Arrays.copyOf(energies, capacity);
+		moveCounters = Arrays.copyOf(moveCounters, capacity);
+		flags = Arrays.copyOf(flags, capacity);
+	}
+
+	@Override public int size() { return size; }
+	@Override public BasicEntity getHandle(int slot) { return handles[slot]; }
+	@Override public Species getSpecies(int slot) { return Species.fromCode(species[slot]); }
+	@Override public int getX(int slot) { return xs[slot]; }
+	@Override public int getY(int slot) { return ys[slot]; }
+	@Override public int getEnergy(int slot) { return energies[slot]; }
+	@Override public int getMoveCounter(int slot) { return moveCounters[slot]; }
+	@Override public int getFlags(int slot) { return flags[slot]; }
+
+	@Override public void setPosition(int slot, int x, int y) { xs[slot] = x; ys[slot] = y; }
+	@Override public void setEnergy(int slot, int energy) { energies[slot] = energy; }
+	@Override public void setMoveCounter(int slot, int moveCounter) { moveCounters[slot] = moveCounter; }
+	@Override public void setFlags(int slot, int entityFlags) { flags[slot] = entityFlags; }
+}
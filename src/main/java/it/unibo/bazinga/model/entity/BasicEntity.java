@@ -1,6 +1,6 @@
 package it.unibo.bazinga.model.entity;
 
-import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import it.unibo.bazinga.model.world.World;
 
@@ -12,12 +12,22 @@ import it.unibo.bazinga.model.world.World;
 public abstract class BasicEntity {
 	protected final World grid;
 	private final int id;
-	protected int x, y;
-	protected int energy;
-	protected boolean hasBazinged;
+	private int x, y;
+	private int energy;
+	private boolean hasBazinged;
 	protected State currentState;
-	private static int nextId = 0;
 	private int moveCounter = 0;
+	// state of the generator of the random choices, see randomDirection
+	private long randomState;
+
+	// decision taken the last time the entity acted, shown by the view until the next one
+	private Request lastRequest;
+	private EntityAction lastAction = EntityAction.IDLE;
+	private boolean actionChanged;
+
+	// column storage the state lives in while the entity is attached, see EntityStore
+	private EntityStore store;
+	private int slot;
 	
 	protected int sightRange;
 	protected int energyBazinga;
@@ -28,6 +38,7 @@ public abstract class BasicEntity {
 
 	/**
 	 * Constructor for the BasicEntity class.
+	 * The id is taken from the allocator of the world, so ids are unique per world.
 	 * @param grid The world grid in which the entity is located.
 	 * @param x The x-coordinate of the entity.
 	 * @param y The y-coordinate of the entity.
@@ -35,7 +46,8 @@ public abstract class BasicEntity {
 	 */
 	public BasicEntity(World grid, int x, int y, int initialEnergy) {
 		this.grid = grid;
-		this.id = nextId++;
+		this.id = grid.getIdAllocator().allocate();
+		this.randomState = grid.getSeed() ^ (id * 0x9E3779B97F4A7C15L);
 		this.x = x;
 		this.y = y;
 		this.energy = initialEnergy;
@@ -52,14 +64,15 @@ public abstract class BasicEntity {
 	public abstract Class<? extends BasicEntity> getPreyType();
 	public abstract Class<? extends BasicEntity> getPredatorType();
 	public abstract BasicEntity spawnOffspring();
+	public abstract Species getSpecies();
 
 	// Getters
 	public int getId() { return id; }
-	public int getX() { return x; }
-	public int getY() { return y; }
-	public int getEnergy() { return energy; }
+	public int getX() { return store != null ? store.getX(slot) : x; }
+	public int getY() { return store != null ? store.getY(slot) : y; }
+	public int getEnergy() { return store != null ? store.getEnergy(slot) : energy; }
 	public int getZIndex() { return zIndex; }
-	public boolean isAlive() { return energy > 0; }
+	public boolean isAlive() { return getEnergy() > 0; }
 	public int getSightRange() { return sightRange; }
 	public int getEnergyBazinga() { return energyBazinga; }
 	public int getEnergyHungry() { return energyHungry; }
@@ -67,9 +80,16 @@ public abstract class BasicEntity {
 	public int getMovementSpeed() { return movementSpeed; }
 
 	// Setters
-	public void setPosition(int newX, int newY) { x = newX; y = newY; }
-	public void addEnergy(int amount) { energy += amount; }
-	public void subtractEnergy(int amount) { energy = Math.max(0, energy - amount); }
+	public void setPosition(int newX, int newY) {
+		if (store != null) { store.setPosition(slot, newX, newY); } 
+		else { x = newX; y = newY; }
+	}
+	public void addEnergy(int amount) { setEnergy(getEnergy() + amount); }
+	public void subtractEnergy(int amount) { setEnergy(Math.max(0, getEnergy() - amount)); }
+	private void setEnergy(int value) {
+		if (store != null) { store.setEnergy(slot, value); } 
+		else { energy = value; }
+	}
 	public void setSightRange(int sightRange) { this.sightRange = sightRange; }
 	public void setEnergyBazinga(int energyBazinga) { this.energyBazinga = energyBazinga; }
 	public void setEnergyHungry(int energyHungry) { this.energyHungry = energyHungry; }
@@ -82,7 +102,7 @@ public abstract class BasicEntity {
 	 * @param target The entity that the current entity is interacting with.
 	 */
 	protected Request moveOrInteract(BasicEntity target) {
-		int dist = Math.abs(x - target.getX()) + Math.abs(y - target.getY());
+		int dist = Math.abs(getX() - target.getX()) + Math.abs(getY() - target.getY());
 		return dist <= 1 ? new Request(ActionType.INTERACT, target.getId()) : moveToward(target);
 	}
 
@@ -91,8 +111,8 @@ public abstract class BasicEntity {
 	 * @param target The entity that the current entity is moving toward.
 	 */
 	protected Request moveToward(BasicEntity target) {
-		int dx = target.getX() - x;
-		int dy = target.getY() - y;
+		int dx = target.getX() - getX();
+		int dy = target.getY() - getY();
 		Direction moveDir = (Math.abs(dx) >= Math.abs(dy)) ? (dx > 0 ? Direction.RIGHT : Direction.LEFT) : (dy > 0 ? Direction.DOWN : Direction.UP);
 		return new Request(ActionType.MOVE, moveDir);
 	}
@@ -103,6 +123,7 @@ public abstract class BasicEntity {
 	 */
 	protected Request moveAway(BasicEntity entity) {
 		Direction bestDirection = null;
+		int x = getX(), y = getY();
 		int maxDist = Math.abs(x - entity.getX()) + Math.abs(y - entity.getY());
 
 		// Find the direction that maximizes the distance from the target entity
@@ -134,14 +155,19 @@ public abstract class BasicEntity {
 
 	/**
 	 * Method that moves the entity in a random direction.
+	 * Each entity has its own generator, seeded from the world and its id, so that entities deciding
+	 * in parallel do not contend on a shared one and a seeded world always evolves the same way.
 	 */
 	public Direction randomDirection() {
 		Direction[] dirs = Direction.values();
-		return dirs[(int) (Math.random() * dirs.length)];
+		randomState = randomState * 6364136223846793005L + 1442695040888963407L;
+		return dirs[(int) (((randomState >>> 32) * dirs.length) >>> 32)];
 	}
 
 	/**
 	 * Method that finds the nearest entity of a given type within a given range.
+	 * Uses the spatial index of the world when one is attached, otherwise searches the tiles in range ring by ring;
+	 * the configuration property {@code model.spatial.index=false} runs the simulation with the ring search.
 	 * @param type The type of entity to search for.
 	 * @param range The range within which to search for the entity.
 	 */
@@ -149,21 +175,43 @@ public abstract class BasicEntity {
 		if (type == null) {
 			return null;
 		}
+		SpatialIndex index = grid.getSpatialIndex();
+		if (index != null) { return index.findNearest(this, type, range); }
+		return findNearestInRings(type, range);
+	}
+
+	/**
+	 * Visits the square rings around the entity in order of increasing Chebyshev distance, clamped to the
+	 * world bounds, and stops as soon as the best Manhattan distance found cannot be beaten by the next ring.
+	 * Ties are broken by the smallest x offset and then the smallest y offset, like a row-major scan of the square.
+	 * @param type The type of entity to search for.
+	 * @param range The range within which to search for the entity.
+	 */
+	private BasicEntity findNearestInRings(Class<? extends BasicEntity> type, int range) {
+		int x = getX(), y = getY();
+		int maxRing = Math.min(range, Math.max(Math.max(x, grid.getWidth() - 1 - x), Math.max(y, grid.getHeight() - 1 - y)));
+		int minX = Math.max(0, x - maxRing), maxX = Math.min(grid.getWidth() - 1, x + maxRing);
+		int minY = Math.max(0, y - maxRing), maxY = Math.min(grid.getHeight() - 1, y + maxRing);
+
 		BasicEntity nearest = null;
-		int minDist = Integer.MAX_VALUE;
-		for (int dx = -range; dx <= range; dx++) {
-			for (int dy = -range; dy <= range; dy++) {
-				
-				int nx = x + dx, ny = y + dy;
-				World.Tile tile = grid.getTile(nx, ny);
-				
-				if (tile == null) { continue; }
-
-				for (BasicEntity other : tile.getEntities()) {
-					if (other == this || !type.isInstance(other) || !other.isAlive()) { continue; }
-					int dist = Math.abs(dx) + Math.abs(dy);
-
-					if (dist < minDist) { minDist = dist; nearest = other; }
+		int minDist = Integer.MAX_VALUE, bestDx = 0, bestDy = 0;
+		for (int ring = 0; ring <= maxRing && ring <= minDist; ring++) {
+			for (int nx = Math.max(minX, x - ring); nx <= Math.min(maxX, x + ring); nx++) {
+
+				// the left and right edges of the ring are full columns, the rest only has its top and bottom tiles
+				boolean edgeColumn = nx == x - ring || nx == x + ring;
+				for (int ny = y - ring; ny <= y + ring; ny += edgeColumn ? 1 : Math.max(1, 2 * ring)) {
+					if (ny < minY || ny > maxY) { continue; }
+
+					for (BasicEntity other : grid.getEntitiesAt(nx, ny)) {
+						if (other == this || !type.isInstance(other) || !other.isAlive()) { continue; }
+						int dx = nx - x, dy = ny - y;
+						int dist = Math.abs(dx) + Math.abs(dy);
+
+						if (dist < minDist || (dist == minDist && (dx < bestDx || (dx == bestDx && dy < bestDy)))) {
+							minDist = dist; bestDx = dx; bestDy = dy; nearest = other;
+						}
+					}
 				}
 			}
 		}
@@ -171,14 +219,68 @@ public abstract class BasicEntity {
 	}
 
 	// Methods for managing the move counter
-	public void incrementMoveCounter() { moveCounter++; }
-	public boolean isTimeToMove() { return moveCounter >= getMovementSpeed(); }
-	public void resetMoveCounter() { moveCounter = 0; }
+	public void incrementMoveCounter() { setMoveCounter(getMoveCounter() + 1); }
+	public boolean isTimeToMove() { return getMoveCounter() >= getMovementSpeed(); }
+	public void resetMoveCounter() { setMoveCounter(0); }
+	private int getMoveCounter() { return store != null ? store.getMoveCounter(slot) : moveCounter; }
+	private void setMoveCounter(int value) {
+		if (store != null) { store.setMoveCounter(slot, value); } 
+		else { moveCounter = value; }
+	}
+
+	// Methods for reading the last decision, recorded by the ActionHandler when the entity acts
+	public Request getLastRequest() { return lastRequest; }
+	public EntityAction getLastAction() { return lastAction; }
+	void recordDecision(Request request, EntityAction action) {
+		this.lastRequest = request;
+		if (action != lastAction) { actionChanged = true; }
+		this.lastAction = action;
+	}
+	boolean takeActionChange() {
+		boolean changed = actionChanged;
+		actionChanged = false;
+		return changed;
+	}
 
 	// Methods for managing the bazinga flag
-	public void setBazinged() { hasBazinged = true; }
-	public void resetBazinged() { hasBazinged = false; }
-	public boolean hasBazinged() { return this.hasBazinged; }
+	public void setBazinged() { setHasBazinged(true); }
+	public void resetBazinged() { setHasBazinged(false); }
+	public boolean hasBazinged() { return store != null ? (store.getFlags(slot) & EntityStore.FLAG_BAZINGED) != 0 : hasBazinged; }
+	private void setHasBazinged(boolean value) {
+		if (store == null) { hasBazinged = value; return; }
+		int flags = store.getFlags(slot);
+		store.setFlags(slot, value ? flags | EntityStore.FLAG_BAZINGED : flags & ~EntityStore.FLAG_BAZINGED);
+	}
+
+	// Methods for moving the state of the entity in and out of column storage
+	public boolean isAttached() { return store != null; }
+
+	/**
+	 * Moves the state of the entity into the given store; from now on the entity reads and writes its columns.
+	 * @param target The store to attach to.
+	 */
+	void attachTo(EntityStore target) {
+		if (store != null) { return; }
+		slot = target.add(this, getSpecies(), x, y, energy, moveCounter, hasBazinged ? EntityStore.FLAG_BAZINGED : 0);
+		store = target;
+	}
+
+	/**
+	 * Copies the state of the entity back from its store and frees its slot.
+	 */
+	void detach() {
+		if (store == null) { return; }
+		x = store.getX(slot);
+		y = store.getY(slot);
+		energy = store.getEnergy(slot);
+		moveCounter = store.getMoveCounter(slot);
+		hasBazinged = (store.getFlags(slot) & EntityStore.FLAG_BAZINGED) != 0;
+		store.remove(slot);
+		store = null;
+	}
+
+	// called by the store when it moves the entity to another slot
+	void relocate(int newSlot) { slot = newSlot; }
 
 	// enums for action type and direction
 	public enum ActionType { MOVE, INTERACT }
@@ -204,21 +306,16 @@ public abstract class BasicEntity {
 			this.direction = null;
 		}
 
-		// Method that converts the request to a string (used in view)
-		public String toActionString(BasicEntity self, Function<Integer, BasicEntity> entityLookup) {
-			if (type == ActionType.MOVE) {
-				if (direction == null) { return "IDLE"; }
-				return "MOVE_" + direction.name();
-
-			} else if (type == ActionType.INTERACT) {
+		// Method that converts the request to the action shown by the view
+		public EntityAction toAction(BasicEntity self, IntFunction<BasicEntity> entityLookup) {
+			if (type == ActionType.MOVE) { return EntityAction.moveTowards(direction); }
+			if (type == ActionType.INTERACT) {
 				BasicEntity target = entityLookup.apply(targetId);
-				if (target == null || !target.isAlive()) { return "IDLE"; }
-				if (self.getPreyType() != null && self.getPreyType().isInstance(target)) { return "EAT"; }
-				if (self.getClass().equals(target.getClass()) && self.getEnergy() >= self.getEnergyBazinga() && !self.hasBazinged && !target.hasBazinged()) { return "BAZINGA"; }
-
-				return "IDLE";
+				if (target == null || !target.isAlive()) { return EntityAction.IDLE; }
+				if (self.getPreyType() != null && self.getPreyType().isInstance(target)) { return EntityAction.EAT; }
+				if (self.getClass().equals(target.getClass()) && self.getEnergy() >= self.getEnergyBazinga() && !self.hasBazinged() && !target.hasBazinged()) { return EntityAction.BAZINGA; }
 			}
-			return "IDLE";
+			return EntityAction.IDLE;
 		}
 	}
 
@@ -0,0 +1,137 @@
+package it.unibo.bazinga.model.entity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * {@link EntityStore} whose columns live outside the Java heap, in direct memory or in a memory-mapped file.
+ * Only the entity objects that act as handles stay on the heap. The buffer starts with a header holding
+ * the number of slots in use, followed by one record of {@value #RECORD_INTS} ints per slot:
+ * species code, x, y, energy, move counter and flags, in the native byte order.
+ * A mapped store rewrites its file from the start, so another process mapping the same file can follow the population.
+ */
+public class BufferEntityStore implements EntityStore {
+	/** Number of ints in the record of a slot. */
+	public static final int RECORD_INTS = 6;
+	/** Bytes before the first record. */
+	public static final int HEADER_BYTES = 8;
+	private static final int RECORD_BYTES = RECORD_INTS * Integer.BYTES;
+	private static final int SPECIES = 0, X = 4, Y = 8, ENERGY = 12, MOVE_COUNTER = 16, FLAGS = 20;
+	private static final int INITIAL_CAPACITY = 1024;
+	private final Path file;
+	private BasicEntity[] handles = new BasicEntity[INITIAL_CAPACITY];
+	private ByteBuffer records;
+	private int size;
+
+	/**
+	 * Creates a store in direct memory.
+	 */
+	public BufferEntityStore() {
+		this.file = null;
+		this.records = allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Creates a store in a memory-mapped file, replacing its content.
+	 *
+	 * @param file the file that holds the columns.
+	 * @throws IOException if the file cannot be created or mapped.
+	 */
+	public BufferEntityStore(Path file) throws IOException {
+		this.file = file;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			this.records = map(channel, INITIAL_CAPACITY);
+		}
+	}
+
+	@Override
+	public int add(BasicEntity handle, Species kind, int x, int y, int energy, int moveCounter, int entityFlags) {
+		if (size == handles.length) { grow(); }
+		int slot = size;
+		int base = offset(slot);
+		handles[slot] = handle;
+		records.putInt(base + SPECIES, kind.ordinal());
+		records.putInt(base + X, x);
+		records.putInt(base + Y, y);
+		records.putInt(base + ENERGY, energy);
+		records.putInt(base + MOVE_COUNTER, moveCounter);
+		records.putInt(base + FLAGS, entityFlags);
+		setSize(size + 1);
+		return slot;
+	}
+
+	@Override
+	public void remove(int slot) {
+		int last = size - 1;
+		if (slot != last) {
+			handles[slot] = handles[last];
+			records.put(offset(slot), records, offset(last), RECORD_BYTES);
+			handles[slot].relocate(slot);
+		}
+		handles[last] = null;
+		setSize(last);
+	}
+
+	// double the capacity of the handles and of the buffer, keeping the records
+	private void grow() {
+		int capacity = handles.length * 2;
+		handles = Arrays.copyOf(handles, capacity);
+		if (file == null) {
+			ByteBuffer larger = allocate(capacity);
+			larger.put(0, records, 0, offset(size));
+			records = larger;
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			records = map(channel, capacity);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// publish the number of slots in use in the header
+	private void setSize(int newSize) {
+		size = newSize;
+		records.putInt(0, newSize);
+	}
+
+	private static ByteBuffer allocate(int capacity) {
+		return ByteBuffer.allocateDirect(HEADER_BYTES + capacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+	}
+
+	private static ByteBuffer map(FileChannel channel, int capacity) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES).order(ByteOrder.nativeOrder());
+	}
+
+	private static int offset(int slot) { return HEADER_BYTES + slot * RECORD_BYTES; }
+
+	/**
+	 * Writes the columns through to the file of a mapped store; does nothing for a store in direct memory.
+	 */
+	public void force() {
+		if (records instanceof MappedByteBuffer mapped) { mapped.force(); }
+	}
+
+	@Override public int size() { return size; }
+	@Override public BasicEntity getHandle(int slot) { return handles[slot]; }
+	@Override public Species getSpecies(int slot) { return Species.fromCode(records.getInt(offset(slot) + SPECIES)); }
+	@Override public int getX(int slot) { return records.getInt(offset(slot) + X); }
+	@Override public int getY(int slot) { return records.getInt(offset(slot) + Y); }
+	@Override public int getEnergy(int slot) { return records.getInt(offset(slot) + ENERGY); }
+	@Override public int getMoveCounter(int slot) { return records.getInt(offset(slot) + MOVE_COUNTER); }
+	@Override public int getFlags(int slot) { return records.getInt(offset(slot) + FLAGS); }
+
+	@Override public void setPosition(int slot, int x, int y) { records.putInt(offset(slot) + X, x); records.putInt(offset(slot) + Y, y); }
+	@Override public void setEnergy(int slot, int energy) { records.putInt(offset(slot) + ENERGY, energy); }
+	@Override public void setMoveCounter(int slot, int moveCounter) { records.putInt(offset(slot) + MOVE_COUNTER, moveCounter); }
+	@Override public void setFlags(int slot, int entityFlags) { records.putInt(offset(slot) + FLAGS, entityFlags); }
+}
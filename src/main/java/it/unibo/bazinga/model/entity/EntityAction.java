@@ -0,0 +1,41 @@
+package it.unibo.bazinga.model.entity;
+
+/**
+ * The action an entity is shown performing, sent to the view as a compact code.
+ */
+public enum EntityAction {
+	IDLE, MOVE_UP, MOVE_DOWN, MOVE_LEFT, MOVE_RIGHT, EAT, BAZINGA;
+
+	private static final EntityAction[] VALUES = values();
+
+	/**
+	 * Returns the compact code of the action.
+	 *
+	 * @return the ordinal of the action
+	 */
+	public byte code() { return (byte) ordinal(); }
+
+	/**
+	 * Returns the action with the given code.
+	 *
+	 * @param code the ordinal of the action
+	 * @return the action, or IDLE if the code is unknown
+	 */
+	public static EntityAction fromCode(int code) { return code >= 0 && code < VALUES.length ? VALUES[code] : IDLE; }
+
+	/**
+	 * Returns the action of a move in the given direction.
+	 *
+	 * @param direction the direction of the move
+	 * @return the move action, or IDLE if there is no direction
+	 */
+	public static EntityAction moveTowards(BasicEntity.Direction direction) {
+		if (direction == null) { return IDLE; }
+		switch (direction) {
+			case UP: return MOVE_UP;
+			case DOWN: return MOVE_DOWN;
+			case LEFT: return MOVE_LEFT;
+			default: return MOVE_RIGHT;
+		}
+	}
+}
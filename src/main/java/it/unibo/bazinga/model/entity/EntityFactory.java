@@ -11,6 +11,10 @@ import java.util.Random;
 public class EntityFactory {
 	private final World world;
 	private final Random random = new Random();
+	private final int minX;
+	private final int minY;
+	private final int maxX;
+	private final int maxY;
 
 	/**
 	 * Constructor for EntityFactory.
@@ -18,7 +22,25 @@ public class EntityFactory {
 	 * @param world the world in which the entities will be generated
 	 */
 	public EntityFactory(World world) {
+		this(world, 0, 0, world.getWidth() - 1, world.getHeight() - 1);
+	}
+
+	/**
+	 * Constructor for an EntityFactory that places the entities in an area of the world only,
+	 * such as the part of a streamed world that is generated.
+	 * 
+	 * @param world the world in which the entities will be generated
+	 * @param minX the smallest x-coordinate of the area
+	 * @param minY the smallest y-coordinate of the area
+	 * @param maxX the largest x-coordinate of the area
+	 * @param maxY the largest y-coordinate of the area
+	 */
+	public EntityFactory(World world, int minX, int minY, int maxX, int maxY) {
 		this.world = world;
+		this.minX = Math.max(0, minX);
+		this.minY = Math.max(0, minY);
+		this.maxX = Math.min(world.getWidth() - 1, maxX);
+		this.maxY = Math.min(world.getHeight() - 1, maxY);
 	}
 
 	/**
@@ -27,9 +49,22 @@ public class EntityFactory {
 	 * @param entityManager the entity manager to which the entities will be added
 	 */
 	public void generateInitialEntities(EntityManager entityManager) {
-		generatePlants(entityManager, SharedConstants.PLANT_COUNT);
-		generateSheep(entityManager, SharedConstants.SHEEP_COUNT);
-		generateWolves(entityManager, SharedConstants.WOLF_COUNT);
+		generateInitialEntities(entityManager, SharedConstants.PLANT_COUNT, SharedConstants.SHEEP_COUNT, SharedConstants.WOLF_COUNT);
+	}
+
+	/**
+	 * Generates the given number of entities of each kind in the world.
+	 * There must be enough land for them: plants and animals can each take one per land tile.
+	 * 
+	 * @param entityManager the entity manager to which the entities will be added
+	 * @param plants the number of plants
+	 * @param sheep the number of sheep
+	 * @param wolves the number of wolves
+	 */
+	public void generateInitialEntities(EntityManager entityManager, int plants, int sheep, int wolves) {
+		generatePlants(entityManager, plants);
+		generateSheep(entityManager, sheep);
+		generateWolves(entityManager, wolves);
 	}
 
 	/**
@@ -71,18 +106,16 @@ public class EntityFactory {
 	 */
 	private void generateEntitiesOfType(Class<? extends BasicEntity> type, int count, 
 			EntityManager entityManager) {
-		int width = world.getWidth();
-		int height = world.getHeight();
 		int placed = 0;
 
 		// Try to place the entities in random locations
 		while (placed < count) {
-			int x = random.nextInt(width);
-			int y = random.nextInt(height);
+			int x = minX + random.nextInt(maxX - minX + 1);
+			int y = minY + random.nextInt(maxY - minY + 1);
 			Tile tile = world.getTile(x, y);
 
 			// Skip if the tile is not land or already has an entity of the same type
-			if (tile == null || tile.getType() != Tile.TileType.LAND) { continue; }
+			if (tile == null || tile.getType() != Tile.TileType.LAND || !world.isGenerated(x, y)) { continue; }
 			if (hasEntityOfType(tile, type)) { continue; }
 
 			BasicEntity entity = createEntity(type, x, y);
@@ -91,14 +124,15 @@ public class EntityFactory {
 	}
 
 	/**
-	 * Checks if a tile has an entity of a specific type.
+	 * Checks if a tile already has an entity of the same kind, plant or animal.
+	 * Animals block each other, so a new animal is not placed on a tile holding another one.
 	 * 
 	 * @param tile the tile to check
 	 * @param type the type of the entity to check for
-	 * @return true if the tile has an entity of the specified type, false otherwise
+	 * @return true if the tile has an entity of the same kind, false otherwise
 	 */
 	private boolean hasEntityOfType(Tile tile, Class<? extends BasicEntity> type) {
-		return tile.getEntities().stream().anyMatch(type::isInstance);
+		return PlantEntity.class.isAssignableFrom(type) ? world.hasPlant(tile.getX(), tile.getY()) : world.hasAnimal(tile.getX(), tile.getY());
 	}
 
 	/**
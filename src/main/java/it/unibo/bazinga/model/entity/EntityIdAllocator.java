@@ -0,0 +1,84 @@
+package it.unibo.bazinga.model.entity;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free allocator of entity ids for a single world.
+ * An id packs a dense slot index in its low bits and the generation of the slot in its high bits.
+ * Released slots are reused with the next generation, so a stale id never matches the entity
+ * that took its slot; the generation wraps around after {@value #MAX_GENERATIONS} reuses.
+ * Ids can be allocated and released from several threads at once.
+ */
+public class EntityIdAllocator {
+	/** Number of low bits holding the slot index. */
+	public static final int SLOT_BITS = 23;
+	/** Mask extracting the slot index from an id. */
+	public static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+	private static final int MAX_GENERATIONS = 256;
+	private final AtomicInteger nextSlot = new AtomicInteger();
+	private final AtomicReference<FreeId> freeIds = new AtomicReference<>();
+
+	/**
+	 * Hands out an id, reusing a released slot if there is one.
+	 *
+	 * @return a fresh id
+	 */
+	public int allocate() {
+		while (true) {
+			FreeId head = freeIds.get();
+			if (head == null) { break; }
+			if (freeIds.compareAndSet(head, head.next)) { return nextGeneration(head.id); }
+		}
+		int slot = nextSlot.getAndIncrement();
+		if (slot > SLOT_MASK) { throw new IllegalStateException("Too many entities: " + slot); }
+		return slot;
+	}
+
+	/**
+	 * Gives back the slot of an id that is no longer used by any entity.
+	 *
+	 * @param id the id to release
+	 */
+	public void release(int id) {
+		FreeId node = new FreeId(id);
+		do {
+			node.next = freeIds.get();
+		} while (!freeIds.compareAndSet(node.next, node));
+	}
+
+	/**
+	 * Returns the number of slots handed out so far, used or released.
+	 *
+	 * @return one past the highest slot index
+	 */
+	public int slotCount() {
+		return Math.min(nextSlot.get(), SLOT_MASK + 1);
+	}
+
+	/**
+	 * Returns the slot index of an id.
+	 *
+	 * @param id the id
+	 * @return the slot index
+	 */
+	public static int slotOf(int id) {
+		return id & SLOT_MASK;
+	}
+
+	// same slot, next generation
+	private static int nextGeneration(int id) {
+		int generation = ((id >>> SLOT_BITS) + 1) % MAX_GENERATIONS;
+		return (generation << SLOT_BITS) | slotOf(id);
+	}
+
+	/**
+	 * Node of the free list; nodes are never reused, so the stack is free of ABA problems.
+	 */
+	private static class FreeId {
+		private final int id;
+		private FreeId next;
+
+		FreeId(int id) { this.id = id; }
+	}
+}
@@ -0,0 +1,41 @@
+package it.unibo.bazinga.model.entity;
+
+/**
+ * Listener of the changes the EntityManager makes to the population during a cycle.
+ * Callbacks happen on the thread that runs the cycle, in the order of the changes.
+ */
+public interface EntityListener {
+
+	/** Listener that ignores every change. */
+	EntityListener NONE = new EntityListener() { };
+
+	/**
+	 * Called when an entity enters the world, including plants that regrow.
+	 *
+	 * @param entity the new entity
+	 */
+	default void onSpawn(BasicEntity entity) { }
+
+	/**
+	 * Called after an entity moved to its current position.
+	 *
+	 * @param entity the entity that moved
+	 * @param oldX the x-coordinate before the move
+	 * @param oldY the y-coordinate before the move
+	 */
+	default void onMove(BasicEntity entity, int oldX, int oldY) { }
+
+	/**
+	 * Called when an entity leaves the world, eaten or starved, or with its chunk when a streamed world evicts it.
+	 *
+	 * @param entity the entity that left
+	 */
+	default void onDeath(BasicEntity entity) { }
+
+	/**
+	 * Called when the action an entity is shown performing changes.
+	 *
+	 * @param entity the entity that decided a new action
+	 */
+	default void onActionChanged(BasicEntity entity) { }
+}
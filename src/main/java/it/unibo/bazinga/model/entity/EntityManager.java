@@ -1,30 +1,90 @@
 package it.unibo.bazinga.model.entity;
 
+import it.unibo.bazinga.model.world.ChunkListener;
 import it.unibo.bazinga.model.world.World;
 import it.unibo.bazinga.common.SharedConstants;
+import it.unibo.bazinga.common.TickProfiler;
+import it.unibo.bazinga.common.TickProfiler.Phase;
+import it.unibo.bazinga.model.jfr.DeathEvent;
+import it.unibo.bazinga.model.jfr.EvictionEvent;
+import it.unibo.bazinga.model.jfr.TickEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * EntityManager is responsible for managing all entities in the world.
  * keeps track of all entities, their positions, and their states.
+ * In a streamed world it also grows the plants of the chunks that are generated, and takes them
+ * out of the chunks that are evicted.
  */
-public class EntityManager {
+public class EntityManager implements ChunkListener {
+	// share of the tiles of a generated chunk that get a plant, as in the configured world
+	private static final double STREAMED_PLANT_DENSITY = Math.min(1.0, (double) SharedConstants.PLANT_COUNT / (SharedConstants.WORLD_WIDTH * SharedConstants.WORLD_HEIGHT));
 	private final List<BasicEntity> entities = new ArrayList<>();
-	private final Map<Integer, BasicEntity> entityMap = new HashMap<>();
-	private final List<PlantEntity> deadPlants = new ArrayList<>();
+	private BasicEntity[] registry = new BasicEntity[64];
+	private final PlantRegrowthSchedule regrowth = new PlantRegrowthSchedule(SharedConstants.PLANT_RESURRECTION_TIME);
 	private final World world;
+	private final SpatialIndex spatialIndex;
+	private final EntityStore store;
 	private final ActionHandler actionHandler;
+	private EntityListener listener = EntityListener.NONE;
+	private final TickProfiler profiler = new TickProfiler();
+	// set when a chunk is evicted, so that the plants waiting to regrow on it are dropped
+	private boolean regrowthStale;
 
 	/**
-	 * Constructor for EntityManager.
+	 * Constructor for EntityManager, using the storage backend selected by the configuration.
 	 *
 	 * @param world the world in which the entities are placed.
 	 */
 	public EntityManager(World world) {
+		this(world, createStore());
+	}
+
+	/**
+	 * Constructor for EntityManager.
+	 *
+	 * @param world the world in which the entities are placed.
+	 * @param store the column storage for the state of the living entities, or null to keep it in the entity objects.
+	 */
+	public EntityManager(World world, EntityStore store) {
+		this(world, store, SharedConstants.MODEL_SPATIAL_INDEX);
+	}
+
+	/**
+	 * Constructor for EntityManager.
+	 *
+	 * @param world the world in which the entities are placed.
+	 * @param store the column storage for the state of the living entities, or null to keep it in the entity objects.
+	 * @param indexed whether to keep a spatial index for nearest-entity queries, or let entities search the tiles ring by ring.
+	 */
+	public EntityManager(World world, EntityStore store, boolean indexed) {
 		this.world = world;
+		this.store = store;
+		this.spatialIndex = indexed ? new SpatialIndex(world.getWidth(), world.getHeight()) : null;
+		this.world.setSpatialIndex(spatialIndex);
 		this.actionHandler = new ActionHandler(this.world, this);
 	}
 
+	// storage backend selected by the configuration: off the heap for the offheap and mapped modes,
+	// otherwise columns or entity objects
+	private static EntityStore createStore() {
+		if ("offheap".equalsIgnoreCase(SharedConstants.MODEL_STORAGE)) { return new BufferEntityStore(); }
+		if ("mapped".equalsIgnoreCase(SharedConstants.MODEL_STORAGE)) {
+			try {
+				Path directory = Files.createDirectories(Path.of(SharedConstants.MODEL_STORAGE_DIRECTORY));
+				return new BufferEntityStore(directory.resolve("entities.bin"));
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return "columns".equalsIgnoreCase(SharedConstants.MODEL_ENTITY_STORAGE) ? new ArrayEntityStore() : null;
+	}
+
 	/**
 	 * Generates the initial entities in the world.
 	 */
@@ -33,15 +93,50 @@ public class EntityManager {
 		factory.generateInitialEntities(this);
 	}
 
+	/**
+	 * Generates the given number of entities of each kind in the world, regardless of the configuration.
+	 *
+	 * @param plants the number of plants.
+	 * @param sheep the number of sheep.
+	 * @param wolves the number of wolves.
+	 */
+	public void generateInitialEntities(int plants, int sheep, int wolves) {
+		EntityFactory factory = new EntityFactory(this.world);
+		factory.generateInitialEntities(this, plants, sheep, wolves);
+	}
+
 	/**
 	 * Adds an entity to the world.
 	 *
 	 * @param entity the entity to be added.
 	 */
 	public void addEntity(BasicEntity entity) {
+		if (store != null) { entity.attachTo(store); }
 		entities.add(entity);
-		entityMap.put(entity.getId(), entity);
-		world.getTile(entity.getX(), entity.getY()).addEntity(entity);
+		register(entity);
+		world.addEntity(entity, entity.getX(), entity.getY());
+		if (spatialIndex != null) { spatialIndex.add(entity); }
+		listener.onSpawn(entity);
+	}
+
+	/**
+	 * Moves an entity to another tile.
+	 *
+	 * @param entity the entity to move.
+	 * @param newX the x-coordinate of the destination.
+	 * @param newY the y-coordinate of the destination.
+	 * @return true if the entity moved, false if the destination is outside the world.
+	 */
+	public boolean moveEntity(BasicEntity entity, int newX, int newY) {
+		if (!world.contains(newX, newY)) { return false; }
+
+		int oldX = entity.getX(), oldY = entity.getY();
+		world.removeEntity(entity, oldX, oldY);
+		entity.setPosition(newX, newY);
+		world.addEntity(entity, newX, newY);
+		if (spatialIndex != null) { spatialIndex.move(entity, oldX, oldY); }
+		listener.onMove(entity, oldX, oldY);
+		return true;
 	}
 
 	/**
@@ -50,7 +145,7 @@ public class EntityManager {
 	 * @param entity the entity to be removed.
 	 */
 	public void killEntity(BasicEntity toKill) {
-		removeEntity(toKill);
+		removeEntity(toKill, false);
 		toKill.subtractEnergy(toKill.getEnergy());
 	}
 
@@ -58,25 +153,57 @@ public class EntityManager {
 	 * Removes an entity from the world.
 	 *
 	 * @param entity the entity to be removed.
+	 * @param evicted whether it leaves with its chunk rather than dying.
 	 */
-	private void removeEntity(BasicEntity entity) {
-		var tile = world.getTile(entity.getX(), entity.getY());
-		if (tile != null) { tile.removeEntity(entity); }
-		entityMap.remove(entity.getId());
+	private void removeEntity(BasicEntity entity, boolean evicted) {
+		world.removeEntity(entity, entity.getX(), entity.getY());
+		if (unregister(entity)) {
+			listener.onDeath(entity);
+			if (evicted) { EvictionEvent.emit(entity); }
+			else { DeathEvent.emit(entity); }
+		}
+		if (spatialIndex != null) { spatialIndex.remove(entity); }
 	}
 
 
 	/**
-	 * Updates the state of the entities in the world.
+	 * Updates the state of the entities in the world, timing every phase.
 	 */
 	public void updateCycle() {
+		TickEvent tickEvent = new TickEvent();
+		tickEvent.begin();
+		long t = profiler.start();
 		reduceEnergy();
+		t = profiler.lap(Phase.REDUCE_ENERGY, t);
 		removeDeadEntities();
-		List<ActionHandler.RequestWrapper> requests = actionHandler.collectRequests(new ArrayList<>(entities));
+		t = profiler.lap(Phase.REMOVE_DEAD_ENTITIES, t);
+		List<ActionHandler.RequestWrapper> requests = actionHandler.collectRequests(entities);
+		t = profiler.lap(Phase.COLLECT_REQUESTS, t);
 		List<ActionHandler.Action> approvedActions = actionHandler.validateRequests(requests);
+		t = profiler.lap(Phase.VALIDATE_REQUESTS, t);
 		actionHandler.processActions(approvedActions);
+		t = profiler.lap(Phase.PROCESS_ACTIONS, t);
 		resetBazingedFlags();
+		t = profiler.lap(Phase.RESET_BAZINGED_FLAGS, t);
 		resurrectPlants();
+		profiler.lap(Phase.RESURRECT_PLANTS, t);
+		tickEvent.end();
+		if (tickEvent.shouldCommit()) { commitTickEvent(tickEvent, requests.size(), approvedActions.size()); }
+	}
+
+	// fill in the population only when the event is recorded, as it needs a pass over the entities
+	private void commitTickEvent(TickEvent event, int requests, int approvedActions) {
+		for (BasicEntity entity : entities) {
+			switch (entity.getSpecies()) {
+				case PLANT: event.plants++; break;
+				case SHEEP: event.sheep++; break;
+				case WOLF: event.wolves++; break;
+			}
+		}
+		event.entities = entities.size();
+		event.requests = requests;
+		event.approvedActions = approvedActions;
+		event.commit();
 	}
 
 
@@ -84,62 +211,147 @@ public class EntityManager {
 	 * Reduces the energy of all entities in the world.
 	 */
 	private void reduceEnergy() {
-		for (BasicEntity entity : new ArrayList<>(entities)) {
+		if (store != null) { EntitySystems.drainEnergy(store); return; }
+		for (BasicEntity entity : entities) {
 			if (!(entity instanceof PlantEntity)) { entity.subtractEnergy(1); }
 		}
 	}
 
 	/**
 	 * Removes all dead entities from the world.
+	 * The survivors are compacted in place in a single pass, keeping their order.
 	 */
 	private void removeDeadEntities() {
-		for (BasicEntity entity : new ArrayList<>(entities)) {
-			if (!entity.isAlive()) {
-				removeEntity(entity);
-				if (entity instanceof PlantEntity) {
-					PlantEntity plant = (PlantEntity) entity;
-					plant.setResurrectionDelay(SharedConstants.PLANT_RESURRECTION_TIME);
-					deadPlants.add(plant);
-				}
-				entities.remove(entity);
+		int kept = 0;
+		for (int i = 0, n = entities.size(); i < n; i++) {
+			BasicEntity entity = entities.get(i);
+			if (entity.isAlive()) { entities.set(kept++, entity); continue; }
+
+			removeEntity(entity, false);
+			// plants on evicted land do not regrow: the chunk brings its own plants when it is generated again
+			if (entity instanceof PlantEntity && world.isGenerated(entity.getX(), entity.getY())) {
+				// the delay counts the current tick, as the plant starts waiting right away
+				regrowth.schedule((PlantEntity) entity, SharedConstants.PLANT_RESURRECTION_TIME - 1);
 			}
+			else { world.getIdAllocator().release(entity.getId()); }
+			entity.detach();
 		}
+		entities.subList(kept, entities.size()).clear();
 	}
 
 	/**
 	 * Resets the bazinged flags of all entities in the world.
 	 */
 	private void resetBazingedFlags() {
+		if (store != null) { EntitySystems.clearBazinged(store); return; }
 		for (BasicEntity e : entities) { e.resetBazinged(); }
 	}
 
 	/**
-	 * Resurrects all dead plants in the world.
+	 * Resurrects the dead plants due on this tick.
 	 */
 	private void resurrectPlants() {
-		for (PlantEntity p : new ArrayList<>(deadPlants)) {
-			p.decrementResurrectionDelay();
-			if (p.getResurrectionDelay() <= 0) {
-				p.addEnergy(1);
-				var tile = world.getTile(p.getX(), p.getY());
-				tile.addEntity(p);
-				entities.add(p);
-				entityMap.put(p.getId(), p);
-				deadPlants.remove(p);
+		if (regrowthStale) {
+			regrowth.removeIf(p -> !world.isGenerated(p.getX(), p.getY()), p -> world.getIdAllocator().release(p.getId()));
+			regrowthStale = false;
+		}
+		regrowth.drainDue(this::resurrect);
+	}
+
+	/**
+	 * Brings a dead plant back to its tile.
+	 *
+	 * @param p the plant to resurrect.
+	 */
+	private void resurrect(PlantEntity p) {
+		p.addEnergy(1);
+		if (store != null) { p.attachTo(store); }
+		world.addEntity(p, p.getX(), p.getY());
+		if (spatialIndex != null) { spatialIndex.add(p); }
+		entities.add(p);
+		register(p);
+		listener.onSpawn(p);
+	}
+
+
+	/**
+	 * Grows the plants of a chunk of a streamed world that was just generated. They are placed by a
+	 * random generator seeded by the world and the chunk, so a chunk that is evicted and generated
+	 * again gets the same plants back.
+	 *
+	 * @param chunkX the x-coordinate of the chunk, in chunks.
+	 * @param chunkY the y-coordinate of the chunk, in chunks.
+	 */
+	@Override
+	public void onChunkGenerated(int chunkX, int chunkY) {
+		Random random = new Random(world.getSeed() ^ ((long) chunkX << 32 | chunkY & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L);
+		for (int x = chunkX * World.CHUNK_SIZE; x < (chunkX + 1) * World.CHUNK_SIZE; x++) {
+			for (int y = chunkY * World.CHUNK_SIZE; y < (chunkY + 1) * World.CHUNK_SIZE; y++) {
+				boolean grows = random.nextDouble() < STREAMED_PLANT_DENSITY;
+				if (grows && world.contains(x, y) && !world.isWater(x, y) && !world.hasPlant(x, y)) { addEntity(new PlantEntity(world, x, y, 1)); }
 			}
 		}
 	}
 
+	/**
+	 * Takes the plants out of a chunk of a streamed world that is about to be evicted.
+	 * They are left dead for the next cycle to drop, and release their ids as their land is gone.
+	 * Listeners see them leave like any other entity; the flight recorder tells them apart with an eviction event.
+	 *
+	 * @param chunkX the x-coordinate of the chunk, in chunks.
+	 * @param chunkY the y-coordinate of the chunk, in chunks.
+	 */
+	@Override
+	public void onChunkEvicting(int chunkX, int chunkY) {
+		for (int x = chunkX * World.CHUNK_SIZE; x < (chunkX + 1) * World.CHUNK_SIZE; x++) {
+			for (int y = chunkY * World.CHUNK_SIZE; y < (chunkY + 1) * World.CHUNK_SIZE; y++) {
+				if (!world.contains(x, y) || !world.hasPlant(x, y)) { continue; }
+				for (BasicEntity entity : new ArrayList<>(world.getEntitiesAt(x, y))) {
+					if (entity instanceof PlantEntity) {
+						removeEntity(entity, true);
+						entity.subtractEnergy(entity.getEnergy());
+					}
+				}
+			}
+		}
+		regrowthStale = true;
+	}
 
 	/**
-	 * Returns the entity at the specified position.
+	 * Puts an entity in the slot of its id.
 	 *
-	 * @param x the x-coordinate of the position.
-	 * @param y the y-coordinate of the position.
-	 * @return the entity at the specified position.
+	 * @param entity the entity to register.
+	 */
+	private void register(BasicEntity entity) {
+		int slot = EntityIdAllocator.slotOf(entity.getId());
+		if (slot >= registry.length) { registry = Arrays.copyOf(registry, Math.max(slot + 1, registry.length * 2)); }
+		registry[slot] = entity;
+	}
+
+	/**
+	 * Clears the slot of an entity, unless another entity took it already.
+	 *
+	 * @param entity the entity to unregister.
+	 * @return true if the entity was registered.
+	 */
+	private boolean unregister(BasicEntity entity) {
+		int slot = EntityIdAllocator.slotOf(entity.getId());
+		if (slot >= registry.length || registry[slot] != entity) { return false; }
+		registry[slot] = null;
+		return true;
+	}
+
+	/**
+	 * Returns the living entity with the specified id.
+	 *
+	 * @param id the id of the entity.
+	 * @return the entity, or null if no managed entity has that id.
 	 */
 	public BasicEntity getEntityById(int id) {
-		return entityMap.get(id);
+		int slot = EntityIdAllocator.slotOf(id);
+		if (slot >= registry.length) { return null; }
+		BasicEntity entity = registry[slot];
+		return entity != null && entity.getId() == id ? entity : null;
 	}
 
 	/**
@@ -152,4 +364,47 @@ public class EntityManager {
 	public List<BasicEntity> getEntities() {
 		return this.entities;
 	}
+
+	/**
+	 * Returns the listener notified of the changes to the population.
+	 *
+	 * @return the listener, never null.
+	 */
+	public EntityListener getListener() {
+		return this.listener;
+	}
+
+	/**
+	 * Sets the listener notified of the changes to the population.
+	 *
+	 * @param listener the listener, or null to stop listening.
+	 */
+	public void setListener(EntityListener listener) {
+		this.listener = listener != null ? listener : EntityListener.NONE;
+	}
+
+	/**
+	 * Returns the column storage of the living entities.
+	 *
+	 * @return the entity store, or null if the state is kept in the entity objects.
+	 */
+	public EntityStore getEntityStore() {
+		return this.store;
+	}
+
+	/**
+	 * Writes the state of the entities through to the file of a mapped store; does nothing for other stores.
+	 */
+	public void force() {
+		if (store instanceof BufferEntityStore buffer) { buffer.force(); }
+	}
+
+	/**
+	 * Returns the profiler that times the phases of each cycle.
+	 *
+	 * @return the tick profiler.
+	 */
+	public TickProfiler getProfiler() {
+		return this.profiler;
+	}
 }
@@ -0,0 +1,47 @@
+package it.unibo.bazinga.model.entity;
+
+/**
+ * Column-oriented storage backend for the per-tick state of entities.
+ * Each attached entity occupies a dense slot; its position, energy, move counter and flags live
+ * in primitive columns indexed by that slot, so systems can update whole populations in tight loops
+ * while the {@link BasicEntity} objects act as handles over their slot.
+ * Slots are kept dense by moving the last entity into the slot of a removed one.
+ */
+public interface EntityStore {
+	int FLAG_BAZINGED = 1;
+
+	/**
+	 * Appends a new entity with the given state.
+	 *
+	 * @param handle the entity object that owns the slot
+	 * @param species the species of the entity
+	 * @param x the x-coordinate
+	 * @param y the y-coordinate
+	 * @param energy the energy
+	 * @param moveCounter the move counter
+	 * @param flags the flags
+	 * @return the slot of the entity
+	 */
+	int add(BasicEntity handle, Species species, int x, int y, int energy, int moveCounter, int flags);
+
+	/**
+	 * Removes the entity in the given slot, relocating the last entity into it.
+	 *
+	 * @param slot the slot to free
+	 */
+	void remove(int slot);
+
+	int size();
+	BasicEntity getHandle(int slot);
+	Species getSpecies(int slot);
+	int getX(int slot);
+	int getY(int slot);
+	int getEnergy(int slot);
+	int getMoveCounter(int slot);
+	int getFlags(int slot);
+
+	void setPosition(int slot, int x, int y);
+	void setEnergy(int slot, int energy);
+	void setMoveCounter(int slot, int moveCounter);
+	void setFlags(int slot, int flags);
+}
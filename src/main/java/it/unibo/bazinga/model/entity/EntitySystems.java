@@ -0,0 +1,50 @@
+package it.unibo.bazinga.model.entity;
+
+/**
+ * Systems that update whole populations directly on the columns of an {@link EntityStore},
+ * without going through the entity objects.
+ */
+public final class EntitySystems {
+
+	// prevent instantiation
+	private EntitySystems() { }
+
+	/**
+	 * Makes every living animal consume one unit of energy.
+	 *
+	 * @param store the store to update
+	 */
+	public static void drainEnergy(EntityStore store) {
+		for (int slot = 0, size = store.size(); slot < size; slot++) {
+			int energy = store.getEnergy(slot);
+			if (energy > 0 && store.getSpecies(slot).isMobile()) { store.setEnergy(slot, energy - 1); }
+		}
+	}
+
+	/**
+	 * Clears the bazinga flag of every entity.
+	 *
+	 * @param store the store to update
+	 */
+	public static void clearBazinged(EntityStore store) {
+		for (int slot = 0, size = store.size(); slot < size; slot++) {
+			int flags = store.getFlags(slot);
+			if ((flags & EntityStore.FLAG_BAZINGED) != 0) { store.setFlags(slot, flags & ~EntityStore.FLAG_BAZINGED); }
+		}
+	}
+
+	/**
+	 * Counts the living entities of the given species.
+	 *
+	 * @param store the store to inspect
+	 * @param species the species to count
+	 * @return the number of living entities of that species
+	 */
+	public static int countAlive(EntityStore store, Species species) {
+		int count = 0;
+		for (int slot = 0, size = store.size(); slot < size; slot++) {
+			if (store.getEnergy(slot) > 0 && store.getSpecies(slot) == species) { count++; }
+		}
+		return count;
+	}
+}
@@ -6,12 +6,10 @@ import it.unibo.bazinga.model.world.World;
  * Represents a plant entity in the simulation.
  * Plants are immobile entities that can be eaten by sheep.
  * Plants have a resurrection delay, which is the number of turns that must pass
- * before a plant can be eaten again after being eaten.
+ * before a plant can be eaten again after being eaten; the EntityManager schedules it.
  * Plants have a fixed energy value of 1.
  */
 public class PlantEntity extends BasicEntity {
-	private int resurrectionDelay = 0;
-
 	/**
 	 * Constructor for a plant.
 	 *
@@ -41,17 +39,17 @@ public class PlantEntity extends BasicEntity {
 	public Class<? extends BasicEntity> getPredatorType() { return SheepEntity.class; }
 
 	@Override
-	public BasicEntity spawnOffspring() { return new PlantEntity(grid, x, y, 1); }
+	public Species getSpecies() { return Species.PLANT; }
+
+	@Override
+	public BasicEntity spawnOffspring() { return new PlantEntity(grid, getX(), getY(), 1); }
 
 	@Override
-	public boolean isAlive() { return energy > 0; }
+	public boolean isAlive() { return getEnergy() > 0; }
 
 	@Override
 	public int getMovementSpeed() { return 0; }
-	public void kill() { energy = 0; }
-	public int getResurrectionDelay() { return resurrectionDelay; }
-	public void setResurrectionDelay(int value) { this.resurrectionDelay = value; }
-	public void decrementResurrectionDelay() { if (resurrectionDelay > 0) { resurrectionDelay--; } }
+	public void kill() { subtractEnergy(getEnergy()); }
 
 	private static class PlantState implements State {
 	}
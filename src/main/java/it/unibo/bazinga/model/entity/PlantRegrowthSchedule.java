@@ -0,0 +1,107 @@
+package it.unibo.bazinga.model.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Hashed timing wheel of the plants waiting to regrow.
+ * Each bucket holds the plants due on one tick, so draining a tick only touches the plants
+ * that regrow on it. The wheel grows when a plant is scheduled further ahead than it can hold,
+ * which keeps every plant of a bucket due on the same tick.
+ */
+public class PlantRegrowthSchedule {
+	private List<PlantEntity>[] buckets;
+	private long currentTick;
+	private int size;
+
+	/**
+	 * Creates an empty schedule.
+	 *
+	 * @param horizon the longest delay expected, used to size the wheel
+	 */
+	public PlantRegrowthSchedule(int horizon) {
+		this.buckets = newBuckets(horizon + 1);
+	}
+
+	/**
+	 * Schedules a plant to regrow after the given number of ticks.
+	 * A delay of zero makes the plant regrow on the next call to {@link #drainDue(Consumer)}.
+	 *
+	 * @param plant the dead plant
+	 * @param delay the number of ticks to wait
+	 */
+	public void schedule(PlantEntity plant, int delay) {
+		delay = Math.max(0, delay);
+		if (delay >= buckets.length) { grow(delay + 1); }
+		int index = indexOf(currentTick + delay);
+		if (buckets[index] == null) { buckets[index] = new ArrayList<>(); }
+		buckets[index].add(plant);
+		size++;
+	}
+
+	/**
+	 * Hands every plant due on the current tick to the given action, then moves to the next tick.
+	 *
+	 * @param regrow the action that brings a plant back
+	 */
+	public void drainDue(Consumer<PlantEntity> regrow) {
+		List<PlantEntity> due = buckets[indexOf(currentTick)];
+		currentTick++;
+		if (due == null || due.isEmpty()) { return; }
+		for (int i = 0, n = due.size(); i < n; i++) { regrow.accept(due.get(i)); }
+		size -= due.size();
+		due.clear();
+	}
+
+	/**
+	 * Takes out of the schedule every plant that matches a filter, handing each one to an action.
+	 *
+	 * @param filter the test of the plants that should not regrow
+	 * @param removed the action run on every plant taken out
+	 */
+	public void removeIf(Predicate<PlantEntity> filter, Consumer<PlantEntity> removed) {
+		for (List<PlantEntity> bucket : buckets) {
+			if (bucket == null) { continue; }
+			int kept = 0;
+			for (int i = 0, n = bucket.size(); i < n; i++) {
+				PlantEntity plant = bucket.get(i);
+				if (filter.test(plant)) { removed.accept(plant); size--; }
+				else { bucket.set(kept++, plant); }
+			}
+			bucket.subList(kept, bucket.size()).clear();
+		}
+	}
+
+	/**
+	 * Returns the number of plants waiting to regrow.
+	 *
+	 * @return the number of scheduled plants
+	 */
+	public int size() {
+		return size;
+	}
+
+	// move every bucket to a wheel that can hold the given number of ticks
+	private void grow(int ticks) {
+		List<PlantEntity>[] old = buckets;
+		buckets = newBuckets(ticks);
+		for (int offset = 0; offset < old.length; offset++) {
+			long tick = currentTick + offset;
+			buckets[indexOf(tick)] = old[(int) (tick & (old.length - 1))];
+		}
+	}
+
+	// bucket of the given tick
+	private int indexOf(long tick) {
+		return (int) (tick & (buckets.length - 1));
+	}
+
+	// power-of-two wheel with at least the given number of buckets
+	@SuppressWarnings("unchecked")
+	private static List<PlantEntity>[] newBuckets(int ticks) {
+		int capacity = Integer.highestOneBit(Math.max(2, ticks) - 1) << 1;
+		return (List<PlantEntity>[]) new List<?>[capacity];
+	}
+}
@@ -82,7 +82,10 @@ public class SheepEntity extends BasicEntity {
 	public Class<? extends BasicEntity> getPredatorType() { return WolfEntity.class; }
 
 	@Override
-	public BasicEntity spawnOffspring() { return new SheepEntity(grid, x, y, SharedConstants.SHEEP_ENERGY_DEFAULT); }
+	public Species getSpecies() { return Species.SHEEP; }
+
+	@Override
+	public BasicEntity spawnOffspring() { return new SheepEntity(grid, getX(), getY(), SharedConstants.SHEEP_ENERGY_DEFAULT); }
 
 	private static class SheepState implements State {}
 }
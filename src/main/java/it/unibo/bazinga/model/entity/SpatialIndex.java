@@ -0,0 +1,201 @@
+package it.unibo.bazinga.model.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unibo.bazinga.model.world.World;
+
+/**
+ * Spatial index that buckets entities by species into square cells of the world grid.
+ * Nearest-of-type queries visit cells ring by ring around the querying entity and stop as soon
+ * as no unvisited cell can hold a closer candidate, so their cost depends on the local density
+ * of the searched species rather than on the sight range.
+ * Cells are grouped in pages covering one chunk of the world each; a page and its cells exist only
+ * while some entity of the species is in them, so memory follows the population rather than the area.
+ */
+public class SpatialIndex {
+	private static final int CELL_BITS = 3;
+	private static final int CELL_SIZE = 1 << CELL_BITS;
+	private static final int PAGE_BITS = World.CHUNK_BITS - CELL_BITS;
+	private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+	private final int cols;
+	private final int rows;
+	private final int pagesY;
+	private final int pageCount;
+	private final Map<Class<? extends BasicEntity>, Buckets> bucketsByType = new HashMap<>();
+
+	/**
+	 * Creates an empty index covering a world of the given size.
+	 *
+	 * @param width the width of the world
+	 * @param height the height of the world
+	 */
+	public SpatialIndex(int width, int height) {
+		this.cols = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+		this.rows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+		this.pagesY = (rows + PAGE_MASK) >> PAGE_BITS;
+		this.pageCount = ((cols + PAGE_MASK) >> PAGE_BITS) * pagesY;
+	}
+
+	/**
+	 * Adds an entity to the cell of its current position.
+	 *
+	 * @param entity the entity to add
+	 */
+	public void add(BasicEntity entity) {
+		bucketsByType.computeIfAbsent(entity.getClass(), k -> new Buckets(pageCount)).add(cellOf(entity.getX(), entity.getY()), entity);
+	}
+
+	/**
+	 * Removes an entity from the cell of its current position.
+	 *
+	 * @param entity the entity to remove
+	 */
+	public void remove(BasicEntity entity) {
+		Buckets buckets = bucketsByType.get(entity.getClass());
+		if (buckets != null) { buckets.remove(cellOf(entity.getX(), entity.getY()), entity); }
+	}
+
+	/**
+	 * Moves an entity that has already been repositioned from the cell of its old position.
+	 *
+	 * @param entity the entity that moved
+	 * @param oldX the x-coordinate before the move
+	 * @param oldY the y-coordinate before the move
+	 */
+	public void move(BasicEntity entity, int oldX, int oldY) {
+		int from = cellOf(oldX, oldY);
+		int to = cellOf(entity.getX(), entity.getY());
+		if (from == to) { return; }
+		Buckets buckets = bucketsByType.get(entity.getClass());
+		if (buckets != null) { buckets.remove(from, entity); buckets.add(to, entity); }
+	}
+
+	/**
+	 * Finds the nearest living entity of the given type within a square of the given range.
+	 * Distance is Manhattan; ties are broken like a row-major scan of the square, i.e. by the
+	 * smallest x offset and then the smallest y offset.
+	 *
+	 * @param self the entity performing the search, never returned
+	 * @param type the type of entity to search for
+	 * @param range the Chebyshev radius of the search square
+	 * @return the nearest matching entity, or null if there is none in range
+	 */
+	public BasicEntity findNearest(BasicEntity self, Class<? extends BasicEntity> type, int range) {
+		List<Buckets> candidates = new ArrayList<>(bucketsByType.size());
+		for (Map.Entry<Class<? extends BasicEntity>, Buckets> entry : bucketsByType.entrySet()) {
+			if (type.isAssignableFrom(entry.getKey()) && entry.getValue().size > 0) { candidates.add(entry.getValue()); }
+		}
+		if (candidates.isEmpty()) { return null; }
+
+		int x = self.getX();
+		int y = self.getY();
+		int cx = Math.min(cols - 1, Math.max(0, x / CELL_SIZE));
+		int cy = Math.min(rows - 1, Math.max(0, y / CELL_SIZE));
+		int maxRing = Math.max(Math.max(cx, cols - 1 - cx), Math.max(cy, rows - 1 - cy));
+
+		BasicEntity nearest = null;
+		int bestDist = Integer.MAX_VALUE, bestDx = 0, bestDy = 0;
+		for (int ring = 0; ring <= maxRing; ring++) {
+
+			// closest tile any cell of this ring can hold, as seen from any tile of the center cell
+			int lowerBound = ring == 0 ? 0 : (ring - 1) * CELL_SIZE + 1;
+			if (lowerBound > range || lowerBound > bestDist) { break; }
+
+			for (int gx = cx - ring; gx <= cx + ring; gx++) {
+				if (gx < 0 || gx >= cols) { continue; }
+				boolean edgeColumn = gx == cx - ring || gx == cx + ring;
+				for (int gy = cy - ring; gy <= cy + ring; gy += edgeColumn ? 1 : Math.max(1, 2 * ring)) {
+					if (gy < 0 || gy >= rows) { continue; }
+					int cell = cell(gx, gy);
+
+					for (Buckets buckets : candidates) {
+						List<BasicEntity> bucket = buckets.get(cell);
+						if (bucket == null) { continue; }
+
+						for (BasicEntity other : bucket) {
+							if (other == self || !other.isAlive()) { continue; }
+							int dx = other.getX() - x, dy = other.getY() - y;
+							if (Math.abs(dx) > range || Math.abs(dy) > range) { continue; }
+
+							int dist = Math.abs(dx) + Math.abs(dy);
+							if (dist < bestDist || (dist == bestDist && (dx < bestDx || (dx == bestDx && dy < bestDy)))) {
+								nearest = other; bestDist = dist; bestDx = dx; bestDy = dy;
+							}
+						}
+					}
+				}
+			}
+		}
+		return nearest;
+	}
+
+	// index of the cell that contains the tile (x, y)
+	private int cellOf(int x, int y) {
+		return cell(Math.min(cols - 1, Math.max(0, x / CELL_SIZE)), Math.min(rows - 1, Math.max(0, y / CELL_SIZE)));
+	}
+
+	// index of the cell at column gx and row gy: the page in the high bits, the cell inside the page in the low ones
+	private int cell(int gx, int gy) {
+		int page = (gx >> PAGE_BITS) * pagesY + (gy >> PAGE_BITS);
+		return page << 2 * PAGE_BITS | (gx & PAGE_MASK) << PAGE_BITS | gy & PAGE_MASK;
+	}
+
+	/**
+	 * Cell buckets of a single species, allocated lazily per page and per cell and released once empty.
+	 */
+	private static class Buckets {
+		private final Page[] pages;
+		private int size;
+
+		Buckets(int pageCount) { this.pages = new Page[pageCount]; }
+
+		List<BasicEntity> get(int cell) {
+			Page page = pages[cell >>> 2 * PAGE_BITS];
+			return page == null ? null : page.cells[cell & Page.CELL_MASK];
+		}
+
+		void add(int cell, BasicEntity entity) {
+			int index = cell >>> 2 * PAGE_BITS;
+			if (pages[index] == null) { pages[index] = new Page(); }
+			Page page = pages[index];
+			int local = cell & Page.CELL_MASK;
+			if (page.cells[local] == null) { page.cells[local] = new ArrayList<>(); }
+			page.cells[local].add(entity);
+			page.size++;
+			size++;
+		}
+
+		// swap-remove, the order inside a cell does not affect the queries; empty cells and pages are dropped
+		void remove(int cell, BasicEntity entity) {
+			int index = cell >>> 2 * PAGE_BITS;
+			Page page = pages[index];
+			if (page == null) { return; }
+			int local = cell & Page.CELL_MASK;
+			List<BasicEntity> bucket = page.cells[local];
+			if (bucket == null) { return; }
+			int found = bucket.indexOf(entity);
+			if (found < 0) { return; }
+			int last = bucket.size() - 1;
+			bucket.set(found, bucket.get(last));
+			bucket.remove(last);
+			size--;
+			if (last == 0) { page.cells[local] = null; }
+			if (--page.size == 0) { pages[index] = null; }
+		}
+	}
+
+	/**
+	 * The cells of one chunk of the world for a single species.
+	 */
+	private static class Page {
+		private static final int CELL_MASK = (1 << 2 * PAGE_BITS) - 1;
+		private final List<BasicEntity>[] cells;
+		private int size;
+
+		@SuppressWarnings("unchecked")
+		Page() { this.cells = (List<BasicEntity>[]) new List<?>[1 << 2 * PAGE_BITS]; }
+	}
+}
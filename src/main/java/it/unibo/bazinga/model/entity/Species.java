@@ -0,0 +1,25 @@
+package it.unibo.bazinga.model.entity;
+
+/**
+ * The species of an entity, used to tag entities in compact, class-free storage.
+ */
+public enum Species {
+	PLANT, SHEEP, WOLF;
+
+	private static final Species[] VALUES = values();
+
+	/**
+	 * Returns the species with the given ordinal code.
+	 *
+	 * @param code the ordinal of the species
+	 * @return the species
+	 */
+	public static Species fromCode(int code) { return VALUES[code]; }
+
+	/**
+	 * Returns whether entities of this species move and consume energy every cycle.
+	 *
+	 * @return true for animals, false for plants
+	 */
+	public boolean isMobile() { return this != PLANT; }
+}
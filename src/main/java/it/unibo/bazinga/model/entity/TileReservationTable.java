@@ -0,0 +1,110 @@
+package it.unibo.bazinga.model.entity;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free table of the tiles claimed by moves during one validation phase.
+ * Several entities may claim the same tile concurrently; the entity with the lowest id wins,
+ * so the outcome does not depend on the order in which the moves are validated.
+ * The table is an open-addressing hash of primitive tile keys sized by the number of claims,
+ * not by the size of the world.
+ */
+public class TileReservationTable {
+	private static final long EMPTY = Long.MIN_VALUE;
+	private static final int NO_HOLDER = Integer.MAX_VALUE;
+	private AtomicLongArray keys;
+	private AtomicIntegerArray holders;
+	private int mask;
+
+	/**
+	 * Creates an empty table.
+	 */
+	public TileReservationTable() {
+		reset(0);
+	}
+
+	/**
+	 * Drops every claim and makes room for the given number of claims.
+	 * Must not be called while claims are being made.
+	 *
+	 * @param expectedClaims the maximum number of claims of the next phase
+	 */
+	public void reset(int expectedClaims) {
+		int capacity = Integer.highestOneBit(Math.max(16, expectedClaims * 2) - 1) << 1;
+		if (keys == null || keys.length() < capacity || keys.length() > capacity * 8) {
+			keys = new AtomicLongArray(capacity);
+			holders = new AtomicIntegerArray(capacity);
+			mask = capacity - 1;
+		}
+		for (int i = 0; i < keys.length(); i++) {
+			keys.set(i, EMPTY);
+			holders.set(i, NO_HOLDER);
+		}
+	}
+
+	/**
+	 * Claims the tile for the given entity. Safe to call from several threads at once.
+	 *
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @param entityId the id of the claiming entity
+	 * @return true if the entity holds the tile at the time of the call
+	 */
+	public boolean claim(int x, int y, int entityId) {
+		int slot = slotOf(x, y, true);
+		while (true) {
+			int holder = holders.get(slot);
+			if (holder <= entityId) { return holder == entityId; }
+			if (holders.compareAndSet(slot, holder, entityId)) { return true; }
+		}
+	}
+
+	/**
+	 * Returns whether the given entity won the claim on the tile.
+	 *
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @param entityId the id of the entity
+	 * @return true if the entity holds the tile
+	 */
+	public boolean isHeldBy(int x, int y, int entityId) {
+		int slot = slotOf(x, y, false);
+		return slot >= 0 && holders.get(slot) == entityId;
+	}
+
+	/**
+	 * Returns whether any entity claimed the tile.
+	 *
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @return true if the tile is claimed
+	 */
+	public boolean isClaimed(int x, int y) {
+		return slotOf(x, y, false) >= 0;
+	}
+
+	// find the slot of the tile, inserting its key if requested; returns -1 if absent and not inserted
+	private int slotOf(int x, int y, boolean insert) {
+		long key = ((long) x << 32) | (y & 0xFFFF_FFFFL);
+		int slot = (int) mix(key) & mask;
+		while (true) {
+			long current = keys.get(slot);
+			if (current == key) { return slot; }
+			if (current == EMPTY) {
+				if (!insert) { return -1; }
+				if (keys.compareAndSet(slot, EMPTY, key)) { return slot; }
+				continue;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	// spread the bits of the key so that neighbouring tiles land in different slots
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xFF51_AFD7_ED55_8CCDL;
+		key ^= key >>> 33;
+		return key;
+	}
+}
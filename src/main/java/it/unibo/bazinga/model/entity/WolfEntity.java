@@ -74,7 +74,10 @@ public class WolfEntity extends BasicEntity {
 	public Class<? extends BasicEntity> getPredatorType() { return null; }
 
 	@Override
-	public BasicEntity spawnOffspring() { return new WolfEntity(grid, x, y, SharedConstants.WOLF_ENERGY_DEFAULT); }
+	public Species getSpecies() { return Species.WOLF; }
+
+	@Override
+	public BasicEntity spawnOffspring() { return new WolfEntity(grid, getX(), getY(), SharedConstants.WOLF_ENERGY_DEFAULT); }
 
 	private static class WolfState implements State {}
 }
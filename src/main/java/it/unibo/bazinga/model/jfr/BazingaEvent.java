@@ -0,0 +1,37 @@
+package it.unibo.bazinga.model.jfr;
+
+import it.unibo.bazinga.model.entity.BasicEntity;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for two entities bazinga-ing, that is spawning an offspring.
+ * The entity fields describe the offspring.
+ */
+@Name("it.unibo.bazinga.Bazinga")
+@Label("Entity Bazinga")
+@Description("Two entities spawned an offspring")
+public class BazingaEvent extends EntityEvent {
+	@Label("First Parent Id")
+	public int parent1Id;
+
+	@Label("Second Parent Id")
+	public int parent2Id;
+
+	/**
+	 * Records a birth, if the event is enabled.
+	 *
+	 * @param offspring the new entity
+	 * @param parent1 the first parent
+	 * @param parent2 the second parent
+	 */
+	public static void emit(BasicEntity offspring, BasicEntity parent1, BasicEntity parent2) {
+		BazingaEvent event = new BazingaEvent();
+		if (!event.shouldCommit()) { return; }
+		event.setEntity(offspring);
+		event.parent1Id = parent1.getId();
+		event.parent2Id = parent2.getId();
+		event.commit();
+	}
+}
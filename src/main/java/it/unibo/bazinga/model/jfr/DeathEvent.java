@@ -0,0 +1,27 @@
+package it.unibo.bazinga.model.jfr;
+
+import it.unibo.bazinga.model.entity.BasicEntity;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for an entity leaving the world, eaten or starved.
+ */
+@Name("it.unibo.bazinga.Death")
+@Label("Entity Death")
+@Description("An entity left the world, eaten or starved")
+public class DeathEvent extends EntityEvent {
+
+	/**
+	 * Records the death of an entity, if the event is enabled.
+	 *
+	 * @param entity the entity that died
+	 */
+	public static void emit(BasicEntity entity) {
+		DeathEvent event = new DeathEvent();
+		if (!event.shouldCommit()) { return; }
+		event.setEntity(entity);
+		event.commit();
+	}
+}
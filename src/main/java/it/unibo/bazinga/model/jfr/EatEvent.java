@@ -0,0 +1,35 @@
+package it.unibo.bazinga.model.jfr;
+
+import it.unibo.bazinga.model.entity.BasicEntity;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for an entity eating another one.
+ */
+@Name("it.unibo.bazinga.Eat")
+@Label("Entity Eat")
+@Description("An entity ate its prey")
+public class EatEvent extends EntityEvent {
+	@Label("Prey Id")
+	public int preyId;
+
+	@Label("Prey Species")
+	public String preySpecies;
+
+	/**
+	 * Records a meal, if the event is enabled.
+	 *
+	 * @param entity the entity that ate
+	 * @param prey the entity that was eaten
+	 */
+	public static void emit(BasicEntity entity, BasicEntity prey) {
+		EatEvent event = new EatEvent();
+		if (!event.shouldCommit()) { return; }
+		event.setEntity(entity);
+		event.preyId = prey.getId();
+		event.preySpecies = prey.getSpecies().name();
+		event.commit();
+	}
+}
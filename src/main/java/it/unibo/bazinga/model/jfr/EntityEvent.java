@@ -0,0 +1,41 @@
+package it.unibo.bazinga.model.jfr;
+
+import it.unibo.bazinga.model.entity.BasicEntity;
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Common fields of the flight recorder events about a single entity.
+ * They happen many times per cycle, so they are disabled by default;
+ * enable them with the JFR setting {@code <event name>#enabled=true}.
+ */
+@Category({"Bazinga", "Simulation", "Entities"})
+@Enabled(false)
+@StackTrace(false)
+public abstract class EntityEvent extends jdk.jfr.Event {
+	@Label("Entity Id")
+	public int entityId;
+
+	@Label("Species")
+	public String species;
+
+	@Label("X")
+	public int x;
+
+	@Label("Y")
+	public int y;
+
+	/**
+	 * Copies the identity and position of the entity into the event.
+	 *
+	 * @param entity the entity the event is about
+	 */
+	protected void setEntity(BasicEntity entity) {
+		entityId = entity.getId();
+		species = entity.getSpecies().name();
+		x = entity.getX();
+		y = entity.getY();
+	}
+}
@@ -0,0 +1,27 @@
+package it.unibo.bazinga.model.jfr;
+
+import it.unibo.bazinga.model.entity.BasicEntity;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for an entity leaving a streamed world with the chunk it was in.
+ */
+@Name("it.unibo.bazinga.Eviction")
+@Label("Entity Eviction")
+@Description("An entity left the world because its chunk was evicted")
+public class EvictionEvent extends EntityEvent {
+
+	/**
+	 * Records the eviction of an entity, if the event is enabled.
+	 *
+	 * @param entity the entity that was evicted
+	 */
+	public static void emit(BasicEntity entity) {
+		EvictionEvent event = new EvictionEvent();
+		if (!event.shouldCommit()) { return; }
+		event.setEntity(entity);
+		event.commit();
+	}
+}
@@ -0,0 +1,38 @@
+package it.unibo.bazinga.model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one simulation cycle.
+ * Enabled by default; disable it with the JFR setting {@code it.unibo.bazinga.Tick#enabled=false}.
+ */
+@Name("it.unibo.bazinga.Tick")
+@Label("Simulation Tick")
+@Description("One cycle of the simulation, with the population and the requests it handled")
+@Category({"Bazinga", "Simulation"})
+@StackTrace(false)
+public class TickEvent extends jdk.jfr.Event {
+	@Label("Entities")
+	public int entities;
+
+	@Label("Plants")
+	public int plants;
+
+	@Label("Sheep")
+	public int sheep;
+
+	@Label("Wolves")
+	public int wolves;
+
+	@Label("Requests")
+	@Description("Requests collected from the entities")
+	public int requests;
+
+	@Label("Approved Actions")
+	@Description("Requests that passed validation and were processed")
+	public int approvedActions;
+}
@@ -0,0 +1,95 @@
+package it.unibo.bazinga.model.world;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import it.unibo.bazinga.model.entity.BasicEntity;
+
+/**
+ * Square block of {@value World#CHUNK_SIZE}x{@value World#CHUNK_SIZE} tiles of a World.
+ * Its terrain is only allocated once a tile is set to something other than land, and its entity
+ * storage once an entity is placed in it; the storage is then kept, as entities tend to come back.
+ * Tiles are indexed by their local coordinates, lx * CHUNK_SIZE + ly.
+ */
+final class Chunk {
+	private static final int WORDS = World.CHUNK_SIZE * World.CHUNK_SIZE / Long.SIZE;
+
+	// one TileType ordinal per tile, on or off the heap, null while the whole chunk is land
+	ByteBuffer terrain;
+	// version of the world terrain when this chunk last changed, so snapshots can tell what to copy again
+	long terrainStamp;
+
+	// entities and occupancy bitmaps, null until the first entity is placed
+	private TileOccupants occupants;
+	private long[] animalBits;
+	private long[] plantBits;
+	private int mobileCount;
+	private int entityCount;
+
+	/**
+	 * Returns the index of a tile inside its chunk.
+	 *
+	 * @param x the x-coordinate of the tile in the world
+	 * @param y the y-coordinate of the tile in the world
+	 * @return the local index of the tile
+	 */
+	static int indexOf(int x, int y) {
+		return (x & World.CHUNK_MASK) << World.CHUNK_BITS | (y & World.CHUNK_MASK);
+	}
+
+	List<BasicEntity> getEntities(int index) {
+		return occupants == null ? null : occupants.get(index);
+	}
+
+	void add(int index, BasicEntity entity) {
+		if (occupants == null) {
+			occupants = new TileOccupants();
+			animalBits = new long[WORDS];
+			plantBits = new long[WORDS];
+		}
+		occupants.add(index, entity);
+		entityCount++;
+		if (entity.getSpecies().isMobile()) {
+			mobileCount++;
+			setBit(animalBits, index, true);
+		}
+		else { setBit(plantBits, index, true); }
+	}
+
+	void remove(int index, BasicEntity entity) {
+		if (occupants == null) { return; }
+		List<BasicEntity> before = occupants.get(index);
+		if (before == null || !before.contains(entity)) { return; }
+		List<BasicEntity> left = occupants.remove(index, entity);
+		entityCount--;
+		if (entity.getSpecies().isMobile()) { mobileCount--; }
+		boolean animal = false, plant = false;
+		for (int i = 0, n = left == null ? 0 : left.size(); i < n; i++) {
+			if (left.get(i).getSpecies().isMobile()) { animal = true; }
+			else { plant = true; }
+		}
+		setBit(animalBits, index, animal);
+		setBit(plantBits, index, plant);
+	}
+
+	boolean hasAnimal(int index) { return animalBits != null && testBit(animalBits, index); }
+	boolean hasPlant(int index) { return plantBits != null && testBit(plantBits, index); }
+	boolean hasEntities() { return occupants != null; }
+	boolean isEmpty() { return entityCount == 0; }
+
+	/**
+	 * Tells whether no animal is in the chunk, so nothing in it can move or act this cycle.
+	 *
+	 * @return true if the chunk holds only plants, or nothing
+	 */
+	boolean isDormant() { return mobileCount == 0; }
+
+	private static boolean testBit(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+
+	private static void setBit(long[] bits, int index, boolean value) {
+		if (value) { bits[index >>> 6] |= 1L << index; }
+		else { bits[index >>> 6] &= ~(1L << index); }
+	}
+}
@@ -0,0 +1,27 @@
+package it.unibo.bazinga.model.world;
+
+/**
+ * Listener of the chunks a ChunkStreamer installs in its world and evicts from it,
+ * for the content that is not terrain. Callbacks happen on the simulation thread.
+ */
+public interface ChunkListener {
+
+	/** Listener that ignores every chunk. */
+	ChunkListener NONE = new ChunkListener() { };
+
+	/**
+	 * Called after a chunk was generated and its tiles can be entered.
+	 *
+	 * @param chunkX the x-coordinate of the chunk, in chunks
+	 * @param chunkY the y-coordinate of the chunk, in chunks
+	 */
+	default void onChunkGenerated(int chunkX, int chunkY) { }
+
+	/**
+	 * Called before a chunk that holds no animal is evicted; the chunk is only evicted if nothing is left in it.
+	 *
+	 * @param chunkX the x-coordinate of the chunk, in chunks
+	 * @param chunkY the y-coordinate of the chunk, in chunks
+	 */
+	default void onChunkEvicting(int chunkX, int chunkY) { }
+}
@@ -0,0 +1,172 @@
+package it.unibo.bazinga.model.world;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Generates the chunks of a streamed World on demand, as animals and the camera come near them,
+ * and evicts the chunks that nobody has come near for a while.
+ * Generation runs in a background pool; the terrain it produces is installed by {@link #update(long)},
+ * which must be called on the simulation thread, so the world is never written from elsewhere.
+ * Terrain is a pure function of the seed, so an evicted chunk comes back exactly as it was when needed again;
+ * chunks that hold animals are never evicted, and a {@link ChunkListener} can add and remove the rest of their content.
+ */
+public final class ChunkStreamer {
+	/** Number of ticks between two scans of the chunks; animals cannot cross a chunk in less. */
+	public static final int SCAN_PERIOD = 8;
+	private final World world;
+	private final NoiseWorldGenerator generator;
+	private final int radius;
+	private final int idleTicks;
+	private final ExecutorService pool;
+	private final Queue<GeneratedChunk> generated = new ConcurrentLinkedQueue<>();
+	private final boolean[] pending;
+	private final long[] lastNeeded;
+	private ChunkListener listener = ChunkListener.NONE;
+	// chunks under the camera, empty until the view reports them
+	private int viewMinX, viewMinY, viewMaxX = -1, viewMaxY = -1;
+
+	/**
+	 * Terrain generated in the background, waiting to be installed.
+	 */
+	private static final class GeneratedChunk {
+		private final int index;
+		private final byte[] terrain;
+
+		GeneratedChunk(int index, byte[] terrain) {
+			this.index = index;
+			this.terrain = terrain;
+		}
+	}
+
+	/**
+	 * Creates a streamer.
+	 *
+	 * @param world the streamed world to fill
+	 * @param generator the generator of the terrain
+	 * @param radius how many chunks around an animal are kept generated
+	 * @param idleTicks how many ticks a chunk nobody needs is kept before it is evicted
+	 * @param threads the number of threads that generate chunks
+	 */
+	public ChunkStreamer(World world, NoiseWorldGenerator generator, int radius, int idleTicks, int threads) {
+		this.world = world;
+		this.generator = generator;
+		this.radius = radius;
+		this.idleTicks = idleTicks;
+		this.pending = new boolean[world.getChunksX() * world.getChunksY()];
+		this.lastNeeded = new long[pending.length];
+		this.pool = Executors.newFixedThreadPool(Math.max(1, threads), task -> {
+			Thread thread = new Thread(task, "chunk-generator");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Sets the listener told about the chunks installed and evicted.
+	 *
+	 * @param listener the listener, or {@link ChunkListener#NONE}
+	 */
+	public void setListener(ChunkListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Generates the chunks around a tile right away, so that the simulation can start there.
+	 *
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 */
+	public void generateAround(int x, int y) {
+		int centerX = x >> World.CHUNK_BITS, centerY = y >> World.CHUNK_BITS;
+		for (int cx = Math.max(0, centerX - radius); cx <= Math.min(world.getChunksX() - 1, centerX + radius); cx++) {
+			for (int cy = Math.max(0, centerY - radius); cy <= Math.min(world.getChunksY() - 1, centerY + radius); cy++) {
+				if (!world.isChunkGenerated(cx, cy)) { install(new GeneratedChunk(cx * world.getChunksY() + cy, generator.generateChunk(world, cx, cy))); }
+			}
+		}
+	}
+
+	/**
+	 * Sets the tiles the camera shows, whose chunks are kept generated.
+	 *
+	 * @param minX the smallest x-coordinate in view
+	 * @param minY the smallest y-coordinate in view
+	 * @param maxX the largest x-coordinate in view
+	 * @param maxY the largest y-coordinate in view
+	 */
+	public void setViewport(int minX, int minY, int maxX, int maxY) {
+		viewMinX = Math.max(0, minX >> World.CHUNK_BITS);
+		viewMinY = Math.max(0, minY >> World.CHUNK_BITS);
+		viewMaxX = Math.min(world.getChunksX() - 1, maxX >> World.CHUNK_BITS);
+		viewMaxY = Math.min(world.getChunksY() - 1, maxY >> World.CHUNK_BITS);
+	}
+
+	/**
+	 * Installs the chunks generated since the previous call; every {@value #SCAN_PERIOD} ticks, also asks for
+	 * the chunks near animals and the camera and evicts the ones left idle.
+	 *
+	 * @param tick the current tick
+	 */
+	public void update(long tick) {
+		for (GeneratedChunk chunk = generated.poll(); chunk != null; chunk = generated.poll()) { install(chunk); }
+		if (tick % SCAN_PERIOD != 0) { return; }
+
+		int chunksX = world.getChunksX(), chunksY = world.getChunksY();
+		for (int index = 0; index < pending.length; index++) {
+			if (!world.isChunkActive(index)) { continue; }
+			int centerX = index / chunksY, centerY = index % chunksY;
+			for (int cx = Math.max(0, centerX - radius); cx <= Math.min(chunksX - 1, centerX + radius); cx++) {
+				for (int cy = Math.max(0, centerY - radius); cy <= Math.min(chunksY - 1, centerY + radius); cy++) { request(cx, cy, tick); }
+			}
+		}
+		for (int cx = viewMinX; cx <= viewMaxX; cx++) {
+			for (int cy = viewMinY; cy <= viewMaxY; cy++) { request(cx, cy, tick); }
+		}
+		for (int index = 0; index < pending.length; index++) {
+			int cx = index / chunksY, cy = index % chunksY;
+			if (tick - lastNeeded[index] <= idleTicks || !world.isChunkGenerated(cx, cy) || world.isChunkActive(index)) { continue; }
+			listener.onChunkEvicting(cx, cy);
+			world.evictChunk(index);
+		}
+	}
+
+	/**
+	 * Returns the number of chunks being generated in the background.
+	 *
+	 * @return the number of chunks asked for and not installed yet
+	 */
+	public int getPendingCount() {
+		int count = 0;
+		for (boolean waiting : pending) {
+			if (waiting) { count++; }
+		}
+		return count;
+	}
+
+	/**
+	 * Stops the background generation; chunks already asked for are dropped.
+	 */
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	// keep a chunk from eviction and have it generated if it is not
+	private void request(int chunkX, int chunkY, long tick) {
+		int index = chunkX * world.getChunksY() + chunkY;
+		lastNeeded[index] = tick;
+		if (pending[index] || world.isChunkGenerated(chunkX, chunkY)) { return; }
+		pending[index] = true;
+		pool.execute(() -> generated.add(new GeneratedChunk(index, generator.generateChunk(world, chunkX, chunkY))));
+	}
+
+	// put generated terrain in the world and open its tiles
+	private void install(GeneratedChunk chunk) {
+		int chunksY = world.getChunksY();
+		if (chunk.terrain != null) { world.putChunkTerrain(chunk.index / chunksY, chunk.index % chunksY, chunk.terrain); }
+		world.setChunkGenerated(chunk.index);
+		pending[chunk.index] = false;
+		listener.onChunkGenerated(chunk.index / chunksY, chunk.index % chunksY);
+	}
+}
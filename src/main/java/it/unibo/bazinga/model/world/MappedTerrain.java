@@ -0,0 +1,88 @@
+package it.unibo.bazinga.model.world;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Terrain of every chunk of a World kept in a memory-mapped file, one block of
+ * {@value #CHUNK_AREA} bytes per chunk at offset HEADER_BYTES + chunkIndex * CHUNK_AREA.
+ * The header records the number of chunks, the seed and the generator the terrain was made with;
+ * a file whose header does not match is cleared when it is mapped, so its terrain is generated again
+ * instead of being reused for another map.
+ * The file is mapped in regions of {@value #CHUNKS_PER_REGION} chunks, so that worlds larger than 2GB
+ * of terrain can be addressed; blocks never written stay as holes in the file and take no disk space.
+ */
+final class MappedTerrain {
+	static final int CHUNK_AREA = World.CHUNK_SIZE * World.CHUNK_SIZE;
+	private static final int CHUNKS_PER_REGION = 1 << 14;
+	private static final int HEADER_BYTES = 64;
+	private static final int MAGIC = 0x425A5452;
+	private final MappedByteBuffer[] regions;
+	private final long previousSize;
+
+	/**
+	 * Maps the terrain file, creating or extending it as needed, and clearing it if it was written for another map.
+	 *
+	 * @param file the file that holds the terrain
+	 * @param chunkCount the number of chunks of the world
+	 * @param seed the seed the terrain is generated from
+	 * @param generator the name and settings of the generator of the terrain
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	MappedTerrain(Path file, int chunkCount, long seed, String generator) throws IOException {
+		this.regions = new MappedByteBuffer[(chunkCount + CHUNKS_PER_REGION - 1) / CHUNKS_PER_REGION];
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(chunkCount).putLong(seed).putInt(generator.hashCode()).clear();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			if (channel.size() > 0 && !header.equals(readHeader(channel))) { channel.truncate(0); }
+			this.previousSize = channel.size();
+			if (previousSize == 0) { channel.write(header, 0); }
+			for (int i = 0; i < regions.length; i++) {
+				int chunks = Math.min(CHUNKS_PER_REGION, chunkCount - i * CHUNKS_PER_REGION);
+				regions[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + (long) i * CHUNKS_PER_REGION * CHUNK_AREA, (long) chunks * CHUNK_AREA);
+			}
+		}
+	}
+
+	// read the header of an existing file, short if the file is
+	private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		while (header.hasRemaining() && channel.read(header, header.position()) > 0) { }
+		return header.flip();
+	}
+
+	/**
+	 * Returns the block of a chunk; writes to it go to the file.
+	 *
+	 * @param chunkIndex the index of the chunk in the world
+	 * @return a view over the terrain of the chunk
+	 */
+	ByteBuffer slice(int chunkIndex) {
+		return regions[chunkIndex / CHUNKS_PER_REGION].slice((chunkIndex % CHUNKS_PER_REGION) * CHUNK_AREA, CHUNK_AREA);
+	}
+
+	/**
+	 * Returns whether the file already held terrain other than land for a chunk when it was mapped.
+	 *
+	 * @param chunkIndex the index of the chunk in the world
+	 * @return true if the chunk has some water
+	 */
+	boolean isStored(int chunkIndex) {
+		if (HEADER_BYTES + (long) (chunkIndex + 1) * CHUNK_AREA > previousSize) { return false; }
+		ByteBuffer block = slice(chunkIndex);
+		for (int i = 0; i < CHUNK_AREA; i += Long.BYTES) {
+			if (block.getLong(i) != 0) { return true; }
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the changes made to the terrain through to the file.
+	 */
+	void force() {
+		for (MappedByteBuffer region : regions) { region.force(); }
+	}
+}
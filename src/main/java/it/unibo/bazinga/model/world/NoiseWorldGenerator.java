@@ -0,0 +1,292 @@
+package it.unibo.bazinga.model.world;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import it.unibo.bazinga.common.SharedConstants;
+
+/**
+ * Generates the terrain of a World from a seed with coherent value noise, one chunk at a time and in parallel.
+ * Lakes are where a fractal noise field falls below a level; rivers are carved where a second, coarser field
+ * crosses zero, which draws long winding channels between them. Every tile depends only on the seed and
+ * on its coordinates, so the same seed gives the same map whatever the number of threads.
+ * The levels are calibrated on a fixed sample of the map, so that the water and lake ratios of the
+ * configuration hold for any size.
+ */
+public final class NoiseWorldGenerator {
+	private static final int LAKE_OCTAVES = 4;
+	private static final int RIVER_OCTAVES = 3;
+	private static final int MIN_PERIOD_BITS = 4;
+	// side of the grid of points the levels are calibrated on
+	private static final int SAMPLES = 96;
+	private static final int AREA = World.CHUNK_SIZE * World.CHUNK_SIZE;
+	private static final byte WATER = (byte) World.Tile.TileType.WATER.ordinal();
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+	private final long seed;
+	private final int threads;
+	private final double waterRatio;
+	private final double lakeRatio;
+	private final int lakeCount;
+	private volatile Levels levels;
+
+	/**
+	 * Creates a generator with the water ratios of the configuration.
+	 *
+	 * @param seed the seed of the terrain
+	 * @param threads the number of threads that generate chunks
+	 */
+	public NoiseWorldGenerator(long seed, int threads) {
+		this(seed, threads, SharedConstants.WORLD_WATER_RATIO * 0.1, SharedConstants.WORLD_LAKE_RATIO * 0.1, SharedConstants.WORLD_LAKE_COUNT);
+	}
+
+	/**
+	 * Creates a generator.
+	 *
+	 * @param seed the seed of the terrain
+	 * @param threads the number of threads that generate chunks
+	 * @param waterRatio the share of the tiles that become water, between 0 and 1
+	 * @param lakeRatio the share of the water that forms lakes rather than rivers, between 0 and 1
+	 * @param lakeCount about how many lakes the map should have, which sets their size
+	 */
+	public NoiseWorldGenerator(long seed, int threads, double waterRatio, double lakeRatio, int lakeCount) {
+		this.seed = seed;
+		this.threads = Math.max(1, threads);
+		this.waterRatio = waterRatio;
+		this.lakeRatio = lakeRatio;
+		this.lakeCount = Math.max(1, lakeCount);
+	}
+
+	/**
+	 * Writes the generated terrain over the whole world; tiles that stay land are left untouched.
+	 *
+	 * @param world the world to fill
+	 */
+	public void generate(World world) {
+		Levels levels = levelsFor(world);
+		int chunksY = world.getChunksY(), chunkCount = world.getChunksX() * chunksY;
+		if (threads == 1) {
+			for (int i = 0; i < chunkCount; i++) { generateChunk(world, i / chunksY, i % chunksY, levels); }
+			return;
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.submit(() -> IntStream.range(0, chunkCount).parallel().forEach(i -> generateChunk(world, i / chunksY, i % chunksY, levels))).join();
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Generates the terrain of a single chunk without touching the world, for callers that install it themselves.
+	 * Gives the same terrain as {@link #generate(World)} and may be called from several threads at once.
+	 *
+	 * @param world the world the chunk belongs to, only read for its dimensions
+	 * @param chunkX the x-coordinate of the chunk, in chunks
+	 * @param chunkY the y-coordinate of the chunk, in chunks
+	 * @return the TileType ordinals of the chunk at index lx * CHUNK_SIZE + ly, or null if it is all land
+	 */
+	public byte[] generateChunk(World world, int chunkX, int chunkY) {
+		Scratch scratch = SCRATCH.get();
+		return fillChunk(scratch, world, chunkX, chunkY, levelsFor(world)) ? scratch.terrain.clone() : null;
+	}
+
+	// fill one chunk of the world; only chunks that get some water are stored
+	private static void generateChunk(World world, int chunkX, int chunkY, Levels levels) {
+		Scratch scratch = SCRATCH.get();
+		if (fillChunk(scratch, world, chunkX, chunkY, levels)) { world.putChunkTerrain(chunkX, chunkY, scratch.terrain); }
+	}
+
+	// compute the terrain of a chunk into the scratch buffers, returning whether it has some water
+	private static boolean fillChunk(Scratch scratch, World world, int chunkX, int chunkY, Levels levels) {
+		int x0 = chunkX << World.CHUNK_BITS, y0 = chunkY << World.CHUNK_BITS;
+		levels.lakes.fill(scratch, scratch.lakes, x0, y0);
+		levels.rivers.fill(scratch, scratch.rivers, x0, y0);
+		int maxX = Math.min(World.CHUNK_SIZE, world.getWidth() - x0), maxY = Math.min(World.CHUNK_SIZE, world.getHeight() - y0);
+		float lakeLevel = levels.lakeLevel, riverLevel = levels.riverLevel;
+		boolean wet = false;
+		Arrays.fill(scratch.terrain, (byte) 0);
+		for (int i = 0; i < maxX; i++) {
+			for (int j = 0; j < maxY; j++) {
+				int index = i << World.CHUNK_BITS | j;
+				float river = scratch.rivers[index];
+				if (scratch.lakes[index] < lakeLevel || (river < riverLevel && river > -riverLevel)) {
+					scratch.terrain[index] = WATER;
+					wet = true;
+				}
+			}
+		}
+		return wet;
+	}
+
+	// noise fields and levels for the dimensions of the world, calibrated once per size
+	private Levels levelsFor(World world) {
+		Levels current = levels;
+		if (current != null && current.width == world.getWidth() && current.height == world.getHeight()) { return current; }
+		current = new Levels(world.getWidth(), world.getHeight());
+		levels = current;
+		return current;
+	}
+
+	/**
+	 * Noise fields of a map of a given size, with the levels below which they turn into water,
+	 * calibrated on a grid of points spread over the map.
+	 */
+	private final class Levels {
+		private final int width;
+		private final int height;
+		private final Octaves lakes;
+		private final Octaves rivers;
+		private final float lakeLevel;
+		private final float riverLevel;
+
+		Levels(int width, int height) {
+			this.width = width;
+			this.height = height;
+			int lakeBits = periodBits(Math.sqrt((double) width * height / lakeCount));
+			this.lakes = new Octaves(seed, lakeBits, LAKE_OCTAVES);
+			this.rivers = new Octaves(~seed, lakeBits + 1, RIVER_OCTAVES);
+			float[] lakeSamples = new float[SAMPLES * SAMPLES];
+			float[] riverSamples = new float[SAMPLES * SAMPLES];
+			for (int i = 0; i < SAMPLES; i++) {
+				for (int j = 0; j < SAMPLES; j++) {
+					int x = (int) ((i + 0.5) * width / SAMPLES), y = (int) ((j + 0.5) * height / SAMPLES);
+					lakeSamples[i * SAMPLES + j] = lakes.valueAt(x, y);
+					riverSamples[i * SAMPLES + j] = Math.abs(rivers.valueAt(x, y));
+				}
+			}
+			double lakeShare = clamp(waterRatio * lakeRatio);
+			this.lakeLevel = quantile(lakeSamples, lakeShare);
+			int dry = 0;
+			for (int i = 0; i < lakeSamples.length; i++) {
+				if (!(lakeSamples[i] < lakeLevel)) { riverSamples[dry++] = riverSamples[i]; }
+			}
+			this.riverLevel = quantile(Arrays.copyOf(riverSamples, dry), clamp((waterRatio - lakeShare) / (1 - lakeShare)));
+		}
+	}
+
+	// power of two closest below the given period, at least 2^MIN_PERIOD_BITS
+	private static int periodBits(double period) {
+		int bits = MIN_PERIOD_BITS;
+		while (bits < 24 && (1 << (bits + 1)) <= period) { bits++; }
+		return bits;
+	}
+
+	private static double clamp(double share) {
+		return Math.max(0, Math.min(1, share));
+	}
+
+	// value below which the given share of the samples falls
+	private static float quantile(float[] samples, double share) {
+		if (samples.length == 0 || share <= 0) { return Float.NEGATIVE_INFINITY; }
+		if (share >= 1) { return Float.POSITIVE_INFINITY; }
+		Arrays.sort(samples);
+		return samples[(int) (share * samples.length)];
+	}
+
+	// per-thread buffers of a chunk, so that generating a chunk allocates nothing
+	private static final class Scratch {
+		private final float[] lakes = new float[AREA];
+		private final float[] rivers = new float[AREA];
+		private final byte[] terrain = new byte[AREA];
+		private final float[] lattice = new float[(World.CHUNK_SIZE + 2) * (World.CHUNK_SIZE + 2)];
+		private final float[] columns = new float[(World.CHUNK_SIZE + 2) * World.CHUNK_SIZE];
+		private final int[] cellX = new int[World.CHUNK_SIZE];
+		private final int[] cellY = new int[World.CHUNK_SIZE];
+	}
+
+	/**
+	 * Fractal value noise: octaves of smoothly interpolated random values on square lattices,
+	 * each with half the period and half the amplitude of the previous one.
+	 */
+	private static final class Octaves {
+		private final long[] seeds;
+		private final int[] bits;
+		private final float[] amplitudes;
+		// smoothstep weight of every offset inside a lattice cell, one table per octave
+		private final float[][] weights;
+
+		Octaves(long seed, int periodBits, int count) {
+			int octaves = Math.max(1, Math.min(count, periodBits));
+			this.seeds = new long[octaves];
+			this.bits = new int[octaves];
+			this.amplitudes = new float[octaves];
+			this.weights = new float[octaves][];
+			for (int o = 0; o < octaves; o++) {
+				seeds[o] = mix(seed + o);
+				bits[o] = periodBits - o;
+				amplitudes[o] = 1f / (1 << o);
+				int period = 1 << bits[o];
+				weights[o] = new float[period];
+				for (int k = 0; k < period; k++) {
+					float t = (float) k / period;
+					weights[o][k] = t * t * (3 - 2 * t);
+				}
+			}
+		}
+
+		// value of the field at a single tile
+		float valueAt(int x, int y) {
+			float value = 0;
+			for (int o = 0; o < seeds.length; o++) {
+				int mask = (1 << bits[o]) - 1;
+				int cx = x >> bits[o], cy = y >> bits[o];
+				float wx = weights[o][x & mask], wy = weights[o][y & mask];
+				float top = lerp(lattice(seeds[o], cx, cy), lattice(seeds[o], cx, cy + 1), wy);
+				float bottom = lerp(lattice(seeds[o], cx + 1, cy), lattice(seeds[o], cx + 1, cy + 1), wy);
+				value += amplitudes[o] * lerp(top, bottom, wx);
+			}
+			return value;
+		}
+
+		// values of the field over the chunk whose first tile is (x0, y0), at index lx * CHUNK_SIZE + ly
+		void fill(Scratch scratch, float[] field, int x0, int y0) {
+			Arrays.fill(field, 0f);
+			for (int o = 0; o < seeds.length; o++) {
+				int shift = bits[o], mask = (1 << shift) - 1;
+				int firstX = x0 >> shift, firstY = y0 >> shift;
+				int cellsX = ((x0 + World.CHUNK_MASK) >> shift) - firstX + 2, cellsY = ((y0 + World.CHUNK_MASK) >> shift) - firstY + 2;
+				for (int i = 0; i < cellsX; i++) {
+					for (int j = 0; j < cellsY; j++) { scratch.lattice[i * cellsY + j] = lattice(seeds[o], firstX + i, firstY + j); }
+				}
+				for (int k = 0; k < World.CHUNK_SIZE; k++) {
+					scratch.cellX[k] = ((x0 + k) >> shift) - firstX;
+					scratch.cellY[k] = ((y0 + k) >> shift) - firstY;
+				}
+				// interpolate along y once per lattice column, then every row of tiles is a blend of two columns
+				float[] weight = weights[o];
+				for (int c = 0; c < cellsX; c++) {
+					for (int j = 0; j < World.CHUNK_SIZE; j++) {
+						int cell = c * cellsY + scratch.cellY[j];
+						scratch.columns[c << World.CHUNK_BITS | j] = lerp(scratch.lattice[cell], scratch.lattice[cell + 1], weight[(y0 + j) & mask]);
+					}
+				}
+				float amplitude = amplitudes[o];
+				float[] columns = scratch.columns;
+				for (int i = 0; i < World.CHUNK_SIZE; i++) {
+					int left = scratch.cellX[i] << World.CHUNK_BITS, right = left + World.CHUNK_SIZE, row = i << World.CHUNK_BITS;
+					float wx = weight[(x0 + i) & mask];
+					for (int j = 0; j < World.CHUNK_SIZE; j++) { field[row + j] += amplitude * lerp(columns[left + j], columns[right + j], wx); }
+				}
+			}
+		}
+
+		private static float lerp(float a, float b, float t) {
+			return a + (b - a) * t;
+		}
+
+		// random value in [-1, 1) of a lattice point
+		private static float lattice(long seed, int x, int y) {
+			long h = mix(seed ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL));
+			return (h >>> 40) * (2f / (1 << 24)) - 1f;
+		}
+
+		// finalizer of SplitMix64, so that nearby lattice points get unrelated values
+		private static long mix(long h) {
+			h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+			h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+			return h ^ (h >>> 31);
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package it.unibo.bazinga.model.world;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import it.unibo.bazinga.model.entity.BasicEntity;
+
+/**
+ * Lists of the entities standing on each occupied tile, in an open-addressing table keyed by the index of the tile.
+ * Only occupied tiles have an entry, so the memory follows the population rather than the size of the world;
+ * the lists of tiles that empty out are kept for reuse, so entities moving around do not allocate.
+ */
+final class TileOccupants {
+	private static final int EMPTY = -1;
+	private int[] keys;
+	private List<BasicEntity>[] lists;
+	private int size;
+	private final ArrayDeque<List<BasicEntity>> spare = new ArrayDeque<>();
+
+	TileOccupants() {
+		allocate(16);
+	}
+
+	/**
+	 * Returns the entities on a tile.
+	 *
+	 * @param index the index of the tile
+	 * @return the entities on the tile, or null if there are none
+	 */
+	List<BasicEntity> get(int index) {
+		int slot = find(index);
+		return slot == EMPTY ? null : lists[slot];
+	}
+
+	/**
+	 * Adds an entity to a tile.
+	 *
+	 * @param index the index of the tile
+	 * @param entity the entity to add
+	 * @return the entities on the tile, including the new one
+	 */
+	List<BasicEntity> add(int index, BasicEntity entity) {
+		int slot = find(index);
+		if (slot == EMPTY) {
+			if ((size + 1) * 2 > keys.length) { rehash(keys.length * 2); }
+			slot = hash(index) & (keys.length - 1);
+			while (keys[slot] != EMPTY) { slot = (slot + 1) & (keys.length - 1); }
+			keys[slot] = index;
+			lists[slot] = spare.isEmpty() ? new ArrayList<>(2) : spare.pop();
+			size++;
+		}
+		lists[slot].add(entity);
+		return lists[slot];
+	}
+
+	/**
+	 * Removes an entity from a tile, dropping the entry of the tile once it is empty.
+	 *
+	 * @param index the index of the tile
+	 * @param entity the entity to remove
+	 * @return the entities left on the tile, or null if there are none
+	 */
+	List<BasicEntity> remove(int index, BasicEntity entity) {
+		int slot = find(index);
+		if (slot == EMPTY) { return null; }
+		List<BasicEntity> list = lists[slot];
+		list.remove(entity);
+		if (!list.isEmpty()) { return list; }
+		spare.push(list);
+		delete(slot);
+		return null;
+	}
+
+	private int find(int index) {
+		int mask = keys.length - 1;
+		for (int slot = hash(index) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+			if (keys[slot] == index) { return slot; }
+		}
+		return EMPTY;
+	}
+
+	// empty a slot, shifting back the entries of the same run that can move closer to their home slot
+	private void delete(int slot) {
+		int mask = keys.length - 1;
+		int hole = slot;
+		for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+			int home = hash(keys[next]) & mask;
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				lists[hole] = lists[next];
+				hole = next;
+			}
+		}
+		keys[hole] = EMPTY;
+		lists[hole] = null;
+		size--;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		List<BasicEntity>[] oldLists = lists;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == EMPTY) { continue; }
+			int slot = hash(oldKeys[i]) & (capacity - 1);
+			while (keys[slot] != EMPTY) { slot = (slot + 1) & (capacity - 1); }
+			keys[slot] = oldKeys[i];
+			lists[slot] = oldLists[i];
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		Arrays.fill(keys, EMPTY);
+		lists = (List<BasicEntity>[]) new List<?>[capacity];
+	}
+
+	private static int hash(int index) {
+		int h = index * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -1,94 +1,483 @@
 package it.unibo.bazinga.model.world;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import it.unibo.bazinga.model.entity.BasicEntity;
+import it.unibo.bazinga.model.entity.EntityIdAllocator;
+import it.unibo.bazinga.model.entity.SpatialIndex;
 
 /**
  * Represents the world map, which is a grid of tiles. Each tile can be either land or water.
  * Each tile can contain entities, which are objects that can be placed on the map.
  * The world map is used to render the game and to simulate the interactions between entities.
+ * The map is split into square chunks of {@value #CHUNK_SIZE}x{@value #CHUNK_SIZE} tiles, allocated only
+ * when a tile in them is set to water or an entity is placed in them, so a large, mostly empty map costs
+ * memory in proportion to the area in use. Tiles are lightweight views created on demand by {@link #getTile(int, int)}.
+ * The terrain of the chunks is kept on the Java heap by default; {@link #offHeap(int, int, long)} keeps it
+ * in direct memory, out of the reach of the garbage collector, and {@link #mapped(int, int, long, String, Path)}
+ * in a file that outlives the process and can be mapped by others.
+ * A {@link #streamed(int, int, long)} world starts with no chunk generated: a {@link ChunkStreamer} generates
+ * them as they are needed and may evict them later, and tiles of chunks not generated yet cannot be entered.
  */
 public class World {
+	/** Number of bits of a coordinate inside a chunk. */
+	public static final int CHUNK_BITS = 6;
+	/** Side of a chunk, in tiles. */
+	public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final Tile.TileType[] TILE_TYPES = Tile.TileType.values();
 	private final int width;
 	private final int height;
-	private final Tile[][] tiles;
+
+	// chunks at index chunkX * chunksY + chunkY, null until something is stored in them
+	private final int chunksX;
+	private final int chunksY;
+	private final Chunk[] chunks;
+	private final boolean direct;
+	private final MappedTerrain mappedTerrain;
+	// whether each chunk was generated, only for streamed worlds
+	private final boolean[] generated;
+	private final AtomicLong terrainVersion = new AtomicLong();
+	private final EntityIdAllocator idAllocator = new EntityIdAllocator();
+	private final long seed;
+	private SpatialIndex spatialIndex;
 
 	/**
-	 * Creates a new world map with the specified width and height.
+	 * Creates a new world map with the specified width and height, all land.
 	 * @param width the width of the world map
 	 * @param height the height of the world map
 	 */
 	public World(int width, int height) {
+		this(width, height, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Creates a new world map, all land, whose entities draw their random choices from the given seed,
+	 * so that the same population on the same map evolves the same way.
+	 * @param width the width of the world map
+	 * @param height the height of the world map
+	 * @param seed the seed of the random choices of the entities
+	 */
+	public World(int width, int height, long seed) {
+		this(width, height, seed, false, null, false);
+	}
+
+	// common constructor of the storage modes; a mapped world starts with the chunks already in its file
+	private World(int width, int height, long seed, boolean direct, MappedTerrain mappedTerrain, boolean streamed) {
+		this.seed = seed;
 		this.width = width;
 		this.height = height;
-		this.tiles = new Tile[width][height];
-		initializeTiles();
+		this.chunksX = chunkCount(width);
+		this.chunksY = chunkCount(height);
+		this.chunks = new Chunk[chunksX * chunksY];
+		this.direct = direct;
+		this.mappedTerrain = mappedTerrain;
+		this.generated = streamed ? new boolean[chunks.length] : null;
+		for (int i = 0; mappedTerrain != null && i < chunks.length; i++) {
+			if (!mappedTerrain.isStored(i)) { continue; }
+			chunks[i] = new Chunk();
+			chunks[i].terrain = mappedTerrain.slice(i);
+			chunks[i].terrainStamp = terrainVersion.incrementAndGet();
+		}
 	}
 
 	/**
-	 * Initializes all tiles in the world map as land.
+	 * Creates a new world map, all land, whose terrain is kept outside the Java heap.
+	 * It behaves exactly like a world on the heap.
+	 * @param width the width of the world map
+	 * @param height the height of the world map
+	 * @param seed the seed of the random choices of the entities
+	 * @return the new world map
 	 */
-	private void initializeTiles() {
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) {
-				tiles[x][y] = new Tile(x, y, Tile.TileType.LAND);
-			}
-		}
+	public static World offHeap(int width, int height, long seed) {
+		return new World(width, height, seed, true, null, false);
+	}
+
+	/**
+	 * Opens a world map whose terrain is kept in a memory-mapped file, creating the file if needed.
+	 * The terrain already in the file is kept, so a map can be saved and reopened, or shared with
+	 * another process mapping the same file, as long as it was written for the same dimensions, seed
+	 * and generator; otherwise the file is cleared and the map starts all land, to be generated again.
+	 * @param width the width of the world map
+	 * @param height the height of the world map
+	 * @param seed the seed of the random choices of the entities and of the terrain
+	 * @param generator the name and settings of the generator of the terrain
+	 * @param terrainFile the file that holds the terrain
+	 * @return the world map
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public static World mapped(int width, int height, long seed, String generator, Path terrainFile) throws IOException {
+		return new World(width, height, seed, false, new MappedTerrain(terrainFile, chunkCount(width) * chunkCount(height), seed, generator), false);
 	}
 
 	/**
-	 * Returns the tile at the specified coordinates.
+	 * Creates a world map whose chunks are generated on demand by a {@link ChunkStreamer}.
+	 * Nothing is allocated for a chunk until it is generated, so the map can be far larger than the area in use.
+	 * @param width the width of the world map
+	 * @param height the height of the world map
+	 * @param seed the seed of the random choices of the entities
+	 * @return the new world map, with no chunk generated
+	 */
+	public static World streamed(int width, int height, long seed) {
+		return new World(width, height, seed, false, null, true);
+	}
+
+	// number of chunks needed to cover a side of the given length
+	private static int chunkCount(int length) {
+		return (length + CHUNK_MASK) >> CHUNK_BITS;
+	}
+
+	/**
+	 * Returns a view of the tile at the specified coordinates.
 	 * @param x the x-coordinate of the tile
 	 * @param y the y-coordinate of the tile
 	 * @return the tile at the specified coordinates, or null if the coordinates are out of bounds
 	 */
 	public Tile getTile(int x, int y) {
-		if (x >= 0 && x < width && y >= 0 && y < height) { return tiles[x][y]; }
-		return null;
+		if (!contains(x, y)) { return null; }
+		return new Tile(this, x, y, getTileType(x, y));
 	}
 
 	/**
-	 * Sets the tile at the specified coordinates.
+	 * Sets the type of the tile at the specified coordinates; the entities on it stay.
 	 * @param x the x-coordinate of the tile
 	 * @param y the y-coordinate of the tile
-	 * @param tile the new tile to set
+	 * @param tile the tile whose type to set
 	 */
 	public void setTile(int x, int y, Tile tile) {
-		if (x >= 0 && x < width && y >= 0 && y < height) { tiles[x][y] = tile; }
+		setTileType(x, y, tile.getType());
+	}
+
+	/**
+	 * Sets the type of the tile at the specified coordinates; the entities on it stay.
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @param type the new type of the tile
+	 */
+	public void setTileType(int x, int y, Tile.TileType type) {
+		if (!contains(x, y)) { return; }
+		Chunk chunk = chunkAt(x, y);
+		if (chunk == null || chunk.terrain == null) {
+			if (type == Tile.TileType.LAND) { return; }
+			chunk = getOrCreateChunk(x, y);
+			chunk.terrain = allocateTerrain((x >> CHUNK_BITS) * chunksY + (y >> CHUNK_BITS));
+		}
+		chunk.terrain.put(Chunk.indexOf(x, y), (byte) type.ordinal());
+		chunk.terrainStamp = terrainVersion.incrementAndGet();
+	}
+
+	/**
+	 * Returns the type of the tile at the specified coordinates.
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @return the type of the tile, or null if the coordinates are out of bounds
+	 */
+	public Tile.TileType getTileType(int x, int y) {
+		if (!contains(x, y)) { return null; }
+		Chunk chunk = chunkAt(x, y);
+		return chunk == null || chunk.terrain == null ? Tile.TileType.LAND : TILE_TYPES[chunk.terrain.get(Chunk.indexOf(x, y))];
+	}
+
+	/**
+	 * Returns the entities on the tile at the specified coordinates.
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @return the entities on the tile, in the order they arrived; empty if none or out of bounds.
+	 *         The list is live and must not be modified: use addEntity and removeEntity
+	 */
+	public List<BasicEntity> getEntitiesAt(int x, int y) {
+		Chunk chunk = contains(x, y) ? chunkAt(x, y) : null;
+		List<BasicEntity> entities = chunk != null ? chunk.getEntities(Chunk.indexOf(x, y)) : null;
+		return entities != null ? entities : Collections.emptyList();
+	}
+
+	/**
+	 * Places an entity on the tile at the specified coordinates.
+	 * @param entity the entity to place
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 */
+	public void addEntity(BasicEntity entity, int x, int y) {
+		if (contains(x, y)) { getOrCreateChunk(x, y).add(Chunk.indexOf(x, y), entity); }
+	}
+
+	/**
+	 * Takes an entity off the tile at the specified coordinates.
+	 * @param entity the entity to remove
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 */
+	public void removeEntity(BasicEntity entity, int x, int y) {
+		Chunk chunk = contains(x, y) ? chunkAt(x, y) : null;
+		if (chunk != null) { chunk.remove(Chunk.indexOf(x, y), entity); }
+	}
+
+	/**
+	 * Returns whether the coordinates are inside the world map.
+	 * @param x the x-coordinate
+	 * @param y the y-coordinate
+	 * @return true if the coordinates are in bounds
+	 */
+	public boolean contains(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	/**
+	 * Returns whether the tile at the specified coordinates is water.
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @return true if the tile is water, false if it is land or out of bounds
+	 */
+	public boolean isWater(int x, int y) {
+		Chunk chunk = contains(x, y) ? chunkAt(x, y) : null;
+		return chunk != null && chunk.terrain != null && chunk.terrain.get(Chunk.indexOf(x, y)) == Tile.TileType.WATER.ordinal();
+	}
+
+	/**
+	 * Returns whether an animal stands on the tile at the specified coordinates.
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @return true if the tile holds an animal
+	 */
+	public boolean hasAnimal(int x, int y) {
+		Chunk chunk = contains(x, y) ? chunkAt(x, y) : null;
+		return chunk != null && chunk.hasAnimal(Chunk.indexOf(x, y));
+	}
+
+	/**
+	 * Returns whether a plant grows on the tile at the specified coordinates.
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @return true if the tile holds a plant
+	 */
+	public boolean hasPlant(int x, int y) {
+		Chunk chunk = contains(x, y) ? chunkAt(x, y) : null;
+		return chunk != null && chunk.hasPlant(Chunk.indexOf(x, y));
+	}
+
+	/**
+	 * Returns whether any entity is on the tile at the specified coordinates.
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @return true if the tile holds an entity
+	 */
+	public boolean isOccupied(int x, int y) { return hasAnimal(x, y) || hasPlant(x, y); }
+
+	/**
+	 * Returns whether the chunk of the tile at the specified coordinates holds no animal,
+	 * so that nothing in it moves or acts. The cycle walks the entities rather than the tiles, so it
+	 * needs no such check; dormancy tells a streamed world which chunks keep their neighbours generated.
+	 * @param x the x-coordinate of a tile of the chunk
+	 * @param y the y-coordinate of a tile of the chunk
+	 * @return true if the chunk is dormant or out of bounds
+	 */
+	public boolean isDormant(int x, int y) {
+		Chunk chunk = contains(x, y) ? chunkAt(x, y) : null;
+		return chunk == null || chunk.isDormant();
+	}
+
+	/**
+	 * Copies the terrain of a chunk, for snapshots that must not share it.
+	 * @param chunkX the x-coordinate of the chunk, in chunks
+	 * @param chunkY the y-coordinate of the chunk, in chunks
+	 * @return the TileType ordinals of the chunk at index lx * CHUNK_SIZE + ly, or null if it is all land
+	 */
+	public byte[] copyChunkTerrain(int chunkX, int chunkY) {
+		Chunk chunk = chunks[chunkX * chunksY + chunkY];
+		if (chunk == null || chunk.terrain == null) { return null; }
+		byte[] copy = new byte[CHUNK_SIZE * CHUNK_SIZE];
+		chunk.terrain.get(0, copy);
+		return copy;
+	}
+
+	/**
+	 * Writes the terrain of a mapped world through to its file; does nothing for other worlds.
+	 */
+	public void force() {
+		if (mappedTerrain != null) { mappedTerrain.force(); }
+	}
+
+	// terrain of a chunk that becomes something other than all land, in the storage of this world
+	private ByteBuffer allocateTerrain(int chunkIndex) {
+		if (mappedTerrain != null) { return mappedTerrain.slice(chunkIndex); }
+		return direct ? ByteBuffer.allocateDirect(CHUNK_SIZE * CHUNK_SIZE) : ByteBuffer.allocate(CHUNK_SIZE * CHUNK_SIZE);
+	}
+
+	// chunk that holds the tile, or null if it was never needed; the tile must be in bounds
+	private Chunk chunkAt(int x, int y) {
+		return chunks[(x >> CHUNK_BITS) * chunksY + (y >> CHUNK_BITS)];
+	}
+
+	private Chunk getOrCreateChunk(int x, int y) {
+		int index = (x >> CHUNK_BITS) * chunksY + (y >> CHUNK_BITS);
+		if (chunks[index] == null) { chunks[index] = new Chunk(); }
+		return chunks[index];
+	}
+
+	/**
+	 * Replaces the terrain of a whole chunk. Safe to call from several threads at once for different chunks,
+	 * as long as nothing else reads or writes the world meanwhile.
+	 * @param chunkX the x-coordinate of the chunk, in chunks
+	 * @param chunkY the y-coordinate of the chunk, in chunks
+	 * @param terrain the TileType ordinals of the chunk at index lx * CHUNK_SIZE + ly
+	 */
+	void putChunkTerrain(int chunkX, int chunkY, byte[] terrain) {
+		int index = chunkX * chunksY + chunkY;
+		if (chunks[index] == null) { chunks[index] = new Chunk(); }
+		if (chunks[index].terrain == null) { chunks[index].terrain = allocateTerrain(index); }
+		chunks[index].terrain.put(0, terrain);
+		chunks[index].terrainStamp = terrainVersion.incrementAndGet();
+	}
+
+	/**
+	 * Returns whether the chunk of the tile at the specified coordinates was generated; always true
+	 * unless the world is streamed.
+	 * @param x the x-coordinate of the tile
+	 * @param y the y-coordinate of the tile
+	 * @return true if the tile can be entered, false if it is not generated yet or out of bounds
+	 */
+	public boolean isGenerated(int x, int y) {
+		return contains(x, y) && (generated == null || generated[(x >> CHUNK_BITS) * chunksY + (y >> CHUNK_BITS)]);
+	}
+
+	/**
+	 * Returns whether a chunk was generated; always true unless the world is streamed.
+	 * @param chunkX the x-coordinate of the chunk, in chunks
+	 * @param chunkY the y-coordinate of the chunk, in chunks
+	 * @return true if the chunk was generated
+	 */
+	public boolean isChunkGenerated(int chunkX, int chunkY) {
+		return generated == null || generated[chunkX * chunksY + chunkY];
+	}
+
+	/**
+	 * Returns a number that changes whenever any terrain changes or a chunk is generated or evicted.
+	 * @return the version of the terrain
+	 */
+	public long getTerrainVersion() { return terrainVersion.get(); }
+
+	/**
+	 * Returns the version of the terrain when a chunk last changed.
+	 * @param chunkX the x-coordinate of the chunk, in chunks
+	 * @param chunkY the y-coordinate of the chunk, in chunks
+	 * @return the stamp of the terrain of the chunk, 0 if it is all land
+	 */
+	public long getChunkTerrainStamp(int chunkX, int chunkY) {
+		Chunk chunk = chunks[chunkX * chunksY + chunkY];
+		return chunk == null || chunk.terrain == null ? 0 : chunk.terrainStamp;
+	}
+
+	// mark a chunk of a streamed world as generated, once its terrain is in place
+	void setChunkGenerated(int index) {
+		generated[index] = true;
+		terrainVersion.incrementAndGet();
+	}
+
+	// whether a chunk holds an animal, which keeps the chunks around it needed
+	boolean isChunkActive(int index) {
+		return chunks[index] != null && !chunks[index].isDormant();
+	}
+
+	// drop a generated chunk of a streamed world, unless an entity is in it
+	boolean evictChunk(int index) {
+		Chunk chunk = chunks[index];
+		if (chunk != null && !chunk.isEmpty()) { return false; }
+		chunks[index] = null;
+		generated[index] = false;
+		terrainVersion.incrementAndGet();
+		return true;
 	}
 
 	public int getWidth() { return width; }
 	public int getHeight() { return height; }
+	public int getChunksX() { return chunksX; }
+	public int getChunksY() { return chunksY; }
+	public SpatialIndex getSpatialIndex() { return spatialIndex; }
+	public EntityIdAllocator getIdAllocator() { return idAllocator; }
+	public long getSeed() { return seed; }
+
+	/**
+	 * Returns the number of chunks that hold terrain or entities.
+	 * @return the number of allocated chunks
+	 */
+	public int getAllocatedChunkCount() {
+		int count = 0;
+		for (Chunk chunk : chunks) {
+			if (chunk != null) { count++; }
+		}
+		return count;
+	}
 
 	/**
-	 * Iterates over all tiles in the world map and applies the specified action to each tile.
+	 * Attaches the spatial index used by entities to look for each other.
+	 * Once attached, entities must be placed and moved through the owner of the index,
+	 * otherwise they will not be found by nearest-entity queries.
+	 * @param spatialIndex the index to attach, or null to fall back to scanning tiles
+	 */
+	public void setSpatialIndex(SpatialIndex spatialIndex) { this.spatialIndex = spatialIndex; }
+
+	/**
+	 * Iterates over all tiles in the world map, chunk by chunk, and applies the specified action to each tile.
 	 * @param action the action to apply to each tile
 	 */
 	public void forEachTile(Consumer<Tile> action) {
-		for (int x = 0; x < width; x++) {
-			for (int y = 0; y < height; y++) { action.accept(tiles[x][y]); }
+		forEachTileIn(0, 0, width - 1, height - 1, action);
+	}
+
+	/**
+	 * Iterates over the tiles that hold entities, skipping the chunks that never held any,
+	 * and applies the specified action to each tile.
+	 * @param action the action to apply to each occupied tile
+	 */
+	public void forEachOccupiedTile(Consumer<Tile> action) {
+		for (int cx = 0; cx < chunksX; cx++) {
+			for (int cy = 0; cy < chunksY; cy++) {
+				Chunk chunk = chunks[cx * chunksY + cy];
+				if (chunk == null || !chunk.hasEntities()) { continue; }
+				int maxX = Math.min(width, (cx + 1) << CHUNK_BITS), maxY = Math.min(height, (cy + 1) << CHUNK_BITS);
+				for (int x = cx << CHUNK_BITS; x < maxX; x++) {
+					for (int y = cy << CHUNK_BITS; y < maxY; y++) {
+						if (chunk.getEntities(Chunk.indexOf(x, y)) != null) { action.accept(getTile(x, y)); }
+					}
+				}
+			}
 		}
 	}
 
 	/**
-	 * Returns a list of all tiles in the world map.
-	 * @return a list of all tiles in the world map
+	 * Returns the tiles within the given Chebyshev range of a tile, without the tile itself.
+	 * @param x the x-coordinate of the center tile
+	 * @param y the y-coordinate of the center tile
+	 * @param range the range
+	 * @return the tiles in range, chunk by chunk
 	 */
 	public List<Tile> getTilesInRange(int x, int y, int range) {
 		List<Tile> nearbyTiles = new ArrayList<>();
-		for (int dx = -range; dx <= range; dx++) {
-			
-			for (int dy = -range; dy <= range; dy++) {
-				if (dx == 0 && dy == 0) continue;
-				Tile tile = getTile(x + dx, y + dy);
+		forEachTileIn(x - range, y - range, x + range, y + range, tile -> {
+			if (tile.getX() != x || tile.getY() != y) { nearbyTiles.add(tile); }
+		});
+		return nearbyTiles;
+	}
 
-				if (tile != null) { nearbyTiles.add(tile); }
+	// visit the tiles of a rectangle clipped to the world, a chunk at a time
+	private void forEachTileIn(int minX, int minY, int maxX, int maxY, Consumer<Tile> action) {
+		int fromX = Math.max(0, minX), fromY = Math.max(0, minY);
+		int toX = Math.min(width - 1, maxX), toY = Math.min(height - 1, maxY);
+		for (int cx = fromX >> CHUNK_BITS; cx <= toX >> CHUNK_BITS; cx++) {
+			for (int cy = fromY >> CHUNK_BITS; cy <= toY >> CHUNK_BITS; cy++) {
+				int chunkMaxX = Math.min(toX, ((cx + 1) << CHUNK_BITS) - 1), chunkMaxY = Math.min(toY, ((cy + 1) << CHUNK_BITS) - 1);
+				for (int tx = Math.max(fromX, cx << CHUNK_BITS); tx <= chunkMaxX; tx++) {
+					for (int ty = Math.max(fromY, cy << CHUNK_BITS); ty <= chunkMaxY; ty++) { action.accept(getTile(tx, ty)); }
+				}
 			}
 		}
-
-		return nearbyTiles;
 	}
 
 	/**
@@ -99,7 +488,7 @@ public class World {
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) { sb.append(tiles[x][y]); }
+			for (int x = 0; x < width; x++) { sb.append(isWater(x, y) ? "W" : "L"); }
 			sb.append("\n");
 		}
 
@@ -107,41 +496,47 @@ public class World {
 	}
 
 	/**
-	 * Represents a tile in the world map.
+	 * Represents a tile in the world map: its coordinates, its type and the entities on it.
+	 * Tiles taken from a world are views over its storage, so entities added through them are placed in the world.
+	 * A tile created on its own only carries a type, to be written with {@link World#setTile(int, int, Tile)}.
 	 */
 	public static class Tile {
+		private final World world;
 		private final int x;
 		private final int y;
 		private final TileType type;
-		private final List<BasicEntity> entities;
-		private final List<BasicEntity> sortedEntities;
-		private boolean needsSorting;
 
 		/**
-		 * Creates a new tile with the specified coordinates and type.
+		 * Creates a new tile with the specified coordinates and type, not attached to any world.
 		 * @param x the x-coordinate of the tile
 		 * @param y the y-coordinate of the tile
 		 * @param type the type of the tile
 		 */
 		public Tile(int x, int y, TileType type) {
+			this(null, x, y, type);
+		}
+
+		private Tile(World world, int x, int y, TileType type) {
+			this.world = world;
 			this.x = x;
 			this.y = y;
 			this.type = type;
-			this.entities = new ArrayList<>();
-			this.sortedEntities = new ArrayList<>();
-			this.needsSorting = false;
 		}
 
-		public List<BasicEntity> getEntities() { return entities; }
+		/**
+		 * Returns the entities on the tile.
+		 * @return the entities on the tile, in the order they arrived
+		 */
+		public List<BasicEntity> getEntities() {
+			return world != null ? world.getEntitiesAt(x, y) : Collections.emptyList();
+		}
 
 		/**
 		 * Adds an entity to the tile.
 		 * @param entity the entity to add
 		 */
 		public void addEntity(BasicEntity entity) {
-			entities.add(entity);
-			sortedEntities.add(entity);
-			needsSorting = true;
+			if (world != null) { world.addEntity(entity, x, y); }
 		}
 
 		/**
@@ -149,8 +544,7 @@ public class World {
 		 * @param entity the entity to remove
 		 */
 		public void removeEntity(BasicEntity entity) {
-			entities.remove(entity);
-			sortedEntities.remove(entity);
+			if (world != null) { world.removeEntity(entity, x, y); }
 		}
 
 		/**
@@ -158,25 +552,33 @@ public class World {
 		 * @return a list of entities on the tile, sorted by zIndex in descending order
 		 */
 		public List<BasicEntity> getSortedEntities() {
-			if (needsSorting) {
-				sortedEntities.sort((a, b) -> {
+			List<BasicEntity> sorted = new ArrayList<>(getEntities());
+			sorted.sort((a, b) -> {
 
-					// sort by zIndex in descending order (higher values last)
-					int zComparison = Integer.compare(a.getZIndex(), b.getZIndex());
-					if (zComparison != 0) { return zComparison; }
+				// sort by zIndex in descending order (higher values last)
+				int zComparison = Integer.compare(a.getZIndex(), b.getZIndex());
+				if (zComparison != 0) { return zComparison; }
 
-					// If zIndex is the same, sort by ID
-					return Integer.compare(a.getId(), b.getId());
-				});
-				needsSorting = false;
-			}
-			return sortedEntities;
+				// If zIndex is the same, sort by ID
+				return Integer.compare(a.getId(), b.getId());
+			});
+			return sorted;
 		}
 
 		public TileType getType() { return type; }
 		public int getX() { return x; }
 		public int getY() { return y; }
 
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Tile)) { return false; }
+			Tile tile = (Tile) other;
+			return world == tile.world && x == tile.x && y == tile.y;
+		}
+
+		@Override
+		public int hashCode() { return 31 * x + y; }
+
 		@Override
 		public String toString() { return type == TileType.LAND ? "L" : "W"; }
 		public enum TileType { LAND, WATER }
@@ -1,38 +1,72 @@
 package it.unibo.bazinga.model.world;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.Random;
-import java.util.Set;
-import java.util.stream.IntStream;
 import it.unibo.bazinga.common.SharedConstants;
 
 /**
  * Utility class for generating and managing the world grid.
+ * Generation is driven by a seed, so the same seed and configuration always give the same map.
  */
 public final class WorldManager {
-	private static final Random random = new Random();
-	private static final List<World.Tile> lakeCenters = new ArrayList<>();
+	private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
 
 	// prevent instantiation
 	private WorldManager() {}
 
 	// set a tile at (x, y) to the given type
 	private static void setTile(World grid, int x, int y, World.Tile.TileType type) {
-		grid.setTile(x, y, new World.Tile(x, y, type));
-		// grid.setTile(x, y, grid.new Tile(x, y, type));
+		grid.setTileType(x, y, type);
 	}
 
-	// generate a new world grid with terrain generation
+	// create an empty world in the storage selected by the configuration
+	private static World createGrid(int width, int height, long seed) {
+		if ("offheap".equalsIgnoreCase(SharedConstants.MODEL_STORAGE)) { return World.offHeap(width, height, seed); }
+		if (!"mapped".equalsIgnoreCase(SharedConstants.MODEL_STORAGE)) { return new World(width, height, seed); }
+		try {
+			Path directory = Files.createDirectories(Path.of(SharedConstants.MODEL_STORAGE_DIRECTORY));
+			return World.mapped(width, height, seed, describeGenerator(), directory.resolve("terrain-" + width + "x" + height + ".bin"));
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// name the generator of the configuration with the settings that shape its terrain
+	private static String describeGenerator() {
+		String name = "noise".equalsIgnoreCase(SharedConstants.WORLD_GENERATOR) ? "noise" : "lakes";
+		return name + " " + SharedConstants.WORLD_WATER_RATIO + " " + SharedConstants.WORLD_LAKE_RATIO + " " + SharedConstants.WORLD_LAKE_COUNT;
+	}
+
+	// generate a new world grid from the seed of the configuration
 	public static World generateGrid(int width, int height) {
-		World grid = new World(width, height);
-		initializeLand(grid);
-		lakeCenters.clear();
-		
+		return generateGrid(width, height, SharedConstants.WORLD_SEED);
+	}
+
+	// generate a new world grid with the generator of the configuration, or reuse the terrain saved for a mapped grid by the same seed and generator
+	public static World generateGrid(int width, int height, long seed) {
+		World grid = createGrid(width, height, seed);
+		if (grid.getAllocatedChunkCount() > 0) { return grid; }
+		if ("noise".equalsIgnoreCase(SharedConstants.WORLD_GENERATOR)) {
+			new NoiseWorldGenerator(seed, SharedConstants.WORLD_GENERATOR_THREADS).generate(grid);
+		}
+		else { generateLakes(grid, new Random(seed)); }
+		return grid;
+	}
+
+	// flood lakes at random places and connect them with rivers
+	private static void generateLakes(World grid, Random random) {
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		List<World.Tile> lakeCenters = new ArrayList<>();
+
 		// calculate target number of water tiles, lakes, and rivers
 		int totalTiles = width * height;
 		int targetWaterTiles = (int) (totalTiles * SharedConstants.WORLD_WATER_RATIO * 0.1);
@@ -45,56 +79,49 @@ public final class WorldManager {
 			int centerX = random.nextInt(width - 4) + 2;
 			int centerY = random.nextInt(height - 4) + 2;
 			int actualLakeSize = (int) (lakeTargetSize * (0.8 + 0.4 * random.nextDouble()));
-			createLake(grid, centerX, centerY, actualLakeSize);
+			createLake(grid, random, centerX, centerY, actualLakeSize);
 			lakeCenters.add(grid.getTile(centerX, centerY));
 		}
 		
 		// connect lakes with rivers
 		if (lakeCenters.size() > 1) {
-			Collections.shuffle(lakeCenters);
+			Collections.shuffle(lakeCenters, random);
 			int numRivers = lakeCenters.size() - 1;
 			int riverTargetSize = targetRiverTiles / numRivers;
 			for (int i = 0; i < lakeCenters.size() - 1; i++) {
 				World.Tile start = lakeCenters.get(i);
 				World.Tile end = lakeCenters.get(i + 1);
-				createRiver(grid, start.getX(), start.getY(), end.getX(), end.getY(), riverTargetSize);
+				createRiver(grid, random, start.getX(), start.getY(), end.getX(), end.getY(), riverTargetSize);
 			}
 		}
-		
-		return grid;
 	}
 
-	// initialize the grid with land tiles
-	private static void initializeLand(World grid) {
-		IntStream.range(0, grid.getWidth())
-			.forEach(x -> IntStream.range(0, grid.getHeight())
-			.forEach(y -> setTile(grid, x, y, World.Tile.TileType.LAND)));
-	}
+	// create a lake using a flood-fill expansion from (centerX, centerY) until targetSize is reached;
+	// the queue holds tiles packed as x * height + y, and tiles already under water are not flooded again
+	private static int createLake(World grid, Random random, int centerX, int centerY, int targetSize) {
+		int height = grid.getHeight();
+		int[] queue = new int[16];
+		int head = 0, tail = 0;
+		queue[tail++] = centerX * height + centerY;
+		int flooded = 0;
+		while (head < tail && flooded < targetSize) {
+			int x = queue[head] / height, y = queue[head] % height;
+			head++;
+			if (grid.isWater(x, y)) { continue; }
 
-	// create a lake using a flood-fill expansion from (centerX, centerY) until targetSize is reached
-	private static int createLake(World grid, int centerX, int centerY, int targetSize) {
-		Queue<World.Tile> queue = new LinkedList<>();
-		queue.add(grid.getTile(centerX, centerY));
-		Set<World.Tile> lakeTiles = new HashSet<>();
-		while (!queue.isEmpty() && lakeTiles.size() < targetSize) {
-			
-			World.Tile tile = queue.poll();
-			if (tile == null || lakeTiles.contains(tile)) continue;
-			
-			setTile(grid, tile.getX(), tile.getY(), World.Tile.TileType.WATER);
-			lakeTiles.add(tile);
-			List<int[]> directions = List.of(new int[]{1, 0}, new int[]{-1, 0}, new int[]{0, 1}, new int[]{0, -1});
-			
-			directions.stream()
-				.filter(dir -> random.nextDouble() < 0.8)
-				.map(dir -> grid.getTile(tile.getX() + dir[0], tile.getY() + dir[1]))
-				.forEach(queue::add);
+			setTile(grid, x, y, World.Tile.TileType.WATER);
+			flooded++;
+			for (int[] dir : DIRECTIONS) {
+				if (random.nextDouble() >= 0.8 || !grid.contains(x + dir[0], y + dir[1])) { continue; }
+				if (tail == queue.length) { queue = Arrays.copyOf(queue, queue.length * 2); }
+				queue[tail++] = (x + dir[0]) * height + y + dir[1];
+			}
 		}
-		return lakeTiles.size();
+		return flooded;
 	}
 
 	// create a river connecting (startX, startY) and (endX, endY), stopping when targetSize is reached
-	private static int createRiver(World grid, int startX, int startY, int endX, int endY, int targetSize) {
+	private static int createRiver(World grid, Random random, int startX, int startY, int endX, int endY, int targetSize) {
 		int added = 0;
 		int x = startX, y = startY;
 		while ((x != endX || y != endY) && added < targetSize) {
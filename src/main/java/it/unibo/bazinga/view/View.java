@@ -1,6 +1,8 @@
 package it.unibo.bazinga.view;
 
+import it.unibo.bazinga.common.TickProfiler;
 import it.unibo.bazinga.controller.observer.ModelDTO;
+import it.unibo.bazinga.controller.observer.ViewDTO;
 import it.unibo.bazinga.controller.observer.ViewObserver;
 import it.unibo.bazinga.view.handlers.ViewControlsHandler;
 import it.unibo.bazinga.view.handlers.MouseHandler;
@@ -12,6 +14,8 @@ import javafx.scene.Scene;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
+import java.util.Arrays;
+
 public class View {
 
 	private ModelDTO modelDTO;
@@ -20,9 +24,12 @@ public class View {
 	private final MouseHandler mouseHandler;
 	private final ViewObserver viewObserver;
 	private final WorldView worldView;
+	private final TickProfiler profiler;
+	private int[] lastVisibleTiles = new int[0];
 
-	public View(Stage stage, String title, int width, int height, ViewObserver viewObserver) {
+	public View(Stage stage, String title, int width, int height, ViewObserver viewObserver, TickProfiler profiler) {
 		this.viewObserver = viewObserver;
+		this.profiler = profiler;
 		viewport = new StackView<>(width, height, true);
 
 		// Register renderable views directly in View.java.
@@ -31,7 +38,7 @@ public class View {
 		viewport.registerRenderable(new EntityView());
 
 		// control bar
-		controlsHandler = new ViewControlsHandler(viewport);
+		controlsHandler = new ViewControlsHandler(viewport, profiler);
 
 		// mouse handler
 		mouseHandler = new MouseHandler(viewport, worldView, viewObserver);
@@ -44,6 +51,7 @@ public class View {
 		BorderPane root = new BorderPane();
 		root.setTop(controlsHandler.createControlBar(viewObserver));
 		root.setCenter(viewport);
+		root.setBottom(controlsHandler.getStatsOverlay());
 		stage.setScene(new Scene(root, width, height));
 		stage.setTitle(title);
 		stage.show();
@@ -57,23 +65,37 @@ public class View {
 			@Override
 			public void handle(long now) {
 				if (modelDTO != null) {
-					viewport.render(modelDTO, now);
+					renderFrame(now);
 				}
 			}
 		}.start();
 	}
 
 	/**
-	 * Updates the model, triggers rendering, initializes counters,
+	 * Applies the changes of the new model, triggers rendering, updates the counters,
 	 * and updates the mouse handler with the current model.
 	 */
 	public void updateModel(ModelDTO newModelDTO) {
 		this.modelDTO = newModelDTO;
-		viewport.render(modelDTO, System.nanoTime());
-		controlsHandler.initializeCountersUpdater(modelDTO);
+		viewport.update(modelDTO);
+		renderFrame(System.nanoTime());
+		controlsHandler.updateCounters(modelDTO);
 		mouseHandler.setModelDTO(modelDTO);
 	}
 
+	// draw the current model and record how long it took
+	private void renderFrame(long now) {
+		long t = profiler.start();
+		viewport.render(modelDTO, now);
+		profiler.lap(TickProfiler.Phase.RENDER, t);
+		// a streamed world generates the tiles the camera moves to
+		int[] visible = worldView.getVisibleTiles();
+		if (!Arrays.equals(visible, lastVisibleTiles)) {
+			lastVisibleTiles = visible;
+			viewObserver.onViewAction(new ViewDTO(new ViewDTO.ViewportCommand(visible[0], visible[1], visible[2], visible[3])));
+		}
+	}
+
 	public void setActionText(String text) {
 		controlsHandler.setActionText(text);
 	}
@@ -35,12 +35,12 @@ public class MouseHandler {
 			if (modelDTO == null) return;
 			Point2D localPoint = viewport.sceneToLocal(e.getSceneX(), e.getSceneY());
 			double scale = viewport.getCamera().getScale();
-			Point2D cameraOffset = CameraOffsetHandler.computeCameraOffset(viewport.getGeometryRenderer(), viewport.getCamera(), viewport.getWidth(), viewport.getHeight(), modelDTO.getGrid().getWidth(), modelDTO.getGrid().getHeight());
+			Point2D cameraOffset = CameraOffsetHandler.computeCameraOffset(viewport.getGeometryRenderer(), viewport.getCamera(), viewport.getWidth(), viewport.getHeight(), modelDTO.getTerrain().getWidth(), modelDTO.getTerrain().getHeight());
 			Point2D gridCoords = viewport.getGeometryRenderer().screenToGrid(localPoint, scale, cameraOffset);
 			int tileX = (int) gridCoords.getX();
 			int tileY = (int) gridCoords.getY();
 
-			if (tileX >= 0 && tileY >= 0 && tileX < modelDTO.getGrid().getWidth() && tileY < modelDTO.getGrid().getHeight()) {
+			if (tileX >= 0 && tileY >= 0 && tileX < modelDTO.getTerrain().getWidth() && tileY < modelDTO.getTerrain().getHeight()) {
 				worldView.setHighlightedTile(tileX, tileY);
 				viewObserver.onViewAction(new ViewDTO(new ViewDTO.EntityTileClickCommand(tileX, tileY)));
 			}
@@ -1,24 +1,19 @@
 package it.unibo.bazinga.view.handlers;
 
+import it.unibo.bazinga.common.TickProfiler;
 import it.unibo.bazinga.controller.observer.ModelDTO;
 import it.unibo.bazinga.controller.observer.ViewDTO;
 import it.unibo.bazinga.controller.observer.ViewObserver;
-import it.unibo.bazinga.model.entity.BasicEntity;
-import it.unibo.bazinga.model.entity.PlantEntity;
-import it.unibo.bazinga.model.entity.SheepEntity;
-import it.unibo.bazinga.model.entity.WolfEntity;
+import it.unibo.bazinga.model.entity.Species;
 import it.unibo.bazinga.view.geometry.GeometryRenderer;
 import it.unibo.bazinga.view.sprites.SpritePathResolver;
 import it.unibo.bazinga.view.views.StackView;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.FlowPane;
-import javafx.util.Duration;
 
 public class ViewControlsHandler {
 
@@ -27,9 +22,15 @@ public class ViewControlsHandler {
 	private final Label plantCounter;
 	private final Label sheepCounter;
 	private final Label wolfCounter;
+	private final Label statsOverlay;
+	private final TickProfiler profiler;
 
-	public ViewControlsHandler(StackView<StackView.Renderable> viewport) {
+	public ViewControlsHandler(StackView<StackView.Renderable> viewport, TickProfiler profiler) {
 		this.viewport = viewport;
+		this.profiler = profiler;
+		this.statsOverlay = new Label("");
+		this.statsOverlay.setStyle("-fx-font-family: monospace;");
+		setStatsVisible(false);
 		this.actionLabel = new Label("actions: ");
 		this.plantCounter = new Label("plant: 0");
 		this.sheepCounter = new Label("sheep: 0");
@@ -37,13 +38,15 @@ public class ViewControlsHandler {
 	}
 
 	/**
-	 * Creates the control bar containing the counters, speed buttons,
-	 * toggle view button and an action label scroll pane.
+	 * Creates the control bar containing the counters, speed buttons, fast-forward button,
+	 * toggle view button, stats button and an action label scroll pane.
 	 */
 	public FlowPane createControlBar(ViewObserver viewObserver) {
 		Button speedUpButton = createSpeedButton("+", -100, viewObserver);
 		Button speedDownButton = createSpeedButton("-", 100, viewObserver);
+		ToggleButton turboButton = createTurboButton(viewObserver);
 		Button toggleViewButton = createToggleViewButton();
+		ToggleButton statsButton = createStatsButton();
 
 		ScrollPane actionScrollPane = new ScrollPane(actionLabel);
 		actionScrollPane.setHbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
@@ -60,7 +63,9 @@ public class ViewControlsHandler {
 				wolfCounter,
 				speedUpButton,
 				speedDownButton,
+				turboButton,
 				toggleViewButton,
+				statsButton,
 				actionScrollPane
 				);
 		topBar.setPrefHeight(50);
@@ -75,6 +80,18 @@ public class ViewControlsHandler {
 		return button;
 	}
 
+	private ToggleButton createTurboButton(ViewObserver viewObserver) {
+		ToggleButton button = new ToggleButton(">>");
+		button.setOnAction(e -> viewObserver.onViewAction(new ViewDTO(new ViewDTO.TurboCommand(button.isSelected()))));
+		return button;
+	}
+
+	private ToggleButton createStatsButton() {
+		ToggleButton button = new ToggleButton("Stats");
+		button.setOnAction(e -> setStatsVisible(button.isSelected()));
+		return button;
+	}
+
 	private Button createToggleViewButton() {
 		Button toggleViewButton = new Button("Toggle View");
 		toggleViewButton.setOnAction(e -> toggleViewMode());
@@ -82,39 +99,26 @@ public class ViewControlsHandler {
 	}
 
 	/**
-	 * Initializes a periodic counter update using a Timeline.
+	 * Updates the counters from the population counts of the model.
+	 */
+	public void updateCounters(ModelDTO modelDTO) {
+		plantCounter.setText("plant: " + modelDTO.getCount(Species.PLANT));
+		sheepCounter.setText("sheep: " + modelDTO.getCount(Species.SHEEP));
+		wolfCounter.setText("wolf: " + modelDTO.getCount(Species.WOLF));
+		if (statsOverlay.isVisible()) { statsOverlay.setText(profiler.summary()); }
+	}
+
+	/**
+	 * Returns the label showing the time spent in each phase of a tick, hidden until the stats button is pressed.
 	 */
-	public void initializeCountersUpdater(ModelDTO modelDTO) {
-		Timeline counterTimeline = new Timeline(new KeyFrame(Duration.millis(500), e -> updateCounters(modelDTO)) );
-		counterTimeline.setCycleCount(Timeline.INDEFINITE);
-		counterTimeline.play();
+	public Label getStatsOverlay() {
+		return statsOverlay;
 	}
 
-	private void updateCounters(ModelDTO modelDTO) {
-		new Thread(() -> {
-			int plants = 0;
-			int sheep = 0;
-			int wolves = 0;
-
-			for (int x = 0; x < modelDTO.getGrid().getWidth(); x++) {
-				for (int y = 0; y < modelDTO.getGrid().getHeight(); y++) {
-					for (BasicEntity entity : modelDTO.getGrid().getTile(x, y).getEntities()) {
-						if (!entity.isAlive()) continue;
-						if (entity instanceof PlantEntity) { plants++; } 
-						else if (entity instanceof SheepEntity) { sheep++; }
-						else if (entity instanceof WolfEntity) { wolves++; }
-					}
-				}
-			}
-			final int finalPlants = plants;
-			final int finalSheep = sheep;
-			final int finalWolves = wolves;
-			Platform.runLater(() -> {
-				plantCounter.setText("plant: " + finalPlants);
-				sheepCounter.setText("sheep: " + finalSheep);
-				wolfCounter.setText("wolf: " + finalWolves);
-			});
-		}).start();
+	private void setStatsVisible(boolean visible) {
+		statsOverlay.setVisible(visible);
+		statsOverlay.setManaged(visible);
+		if (visible) { statsOverlay.setText(profiler.summary()); }
 	}
 
 	public void setActionText(String text) {
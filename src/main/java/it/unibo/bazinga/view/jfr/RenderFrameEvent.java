@@ -0,0 +1,25 @@
+package it.unibo.bazinga.view.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one frame drawn by the StackView.
+ * Enabled by default; disable it with the JFR setting {@code it.unibo.bazinga.RenderFrame#enabled=false}.
+ */
+@Name("it.unibo.bazinga.RenderFrame")
+@Label("Render Frame")
+@Description("One frame drawn on the canvas")
+@Category({"Bazinga", "View"})
+@StackTrace(false)
+public class RenderFrameEvent extends jdk.jfr.Event {
+	@Label("Model Tick")
+	@Description("Tick of the model snapshot that was drawn")
+	public long tick;
+
+	@Label("Renderables")
+	public int renderables;
+}
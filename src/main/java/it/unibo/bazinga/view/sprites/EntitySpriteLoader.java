@@ -1,9 +1,7 @@
 package it.unibo.bazinga.view.sprites;
 
-import it.unibo.bazinga.model.entity.BasicEntity;
-import it.unibo.bazinga.model.entity.PlantEntity;
-import it.unibo.bazinga.model.entity.SheepEntity;
-import it.unibo.bazinga.model.entity.WolfEntity;
+import it.unibo.bazinga.model.entity.EntityAction;
+import it.unibo.bazinga.model.entity.Species;
 import javafx.scene.image.Image;
 
 import java.io.InputStream;
@@ -19,7 +17,7 @@ public class EntitySpriteLoader {
 	private static final int MAX_VARIANTS = 50;
 	private final String relativeBasePath;
 	private final Random rng = new Random();
-	private final Map<Class<? extends BasicEntity>, SpriteConfig> spriteConfigs = new HashMap<>();
+	private final Map<Species, SpriteConfig> spriteConfigs = new EnumMap<>(Species.class);
 
 	/**
 	 * Constructor initializes the relative base path and maps entity types to their sprite configurations.
@@ -29,13 +27,10 @@ public class EntitySpriteLoader {
 	public EntitySpriteLoader(String relativeBasePath) {
 		this.relativeBasePath = relativeBasePath;
 
-		// Map specific entity classes to their corresponding sprite configurations.
-		spriteConfigs.put(WolfEntity.class, new SpriteConfig("wolf", "wolf_"));
-		spriteConfigs.put(SheepEntity.class, new SpriteConfig("sheep", "sheep_"));
-		spriteConfigs.put(PlantEntity.class, new SpriteConfig("plant", "plant_"));
-		
-		// Provide a default configuration for any other BasicEntity type (for testing)
-		spriteConfigs.put(BasicEntity.class, new SpriteConfig("entity", "entity_"));
+		// Map each species to its corresponding sprite configuration.
+		spriteConfigs.put(Species.WOLF, new SpriteConfig("wolf", "wolf_"));
+		spriteConfigs.put(Species.SHEEP, new SpriteConfig("sheep", "sheep_"));
+		spriteConfigs.put(Species.PLANT, new SpriteConfig("plant", "plant_"));
 		reload();
 	}
 
@@ -50,57 +45,40 @@ public class EntitySpriteLoader {
 	/**
 	 * Returns the sprite for the given entity and action.
 	 *
-	 * @param entity    the entity.
-	 * @param actionKey the action key.
+	 * @param species  the species of the entity.
+	 * @param entityId the id of the entity, used to keep its sprite variant.
+	 * @param action   the action.
 	 * @return the sprite image.
 	 */
-	public Image getEntitySprite(BasicEntity entity, String actionKey) {
-		SpriteConfig config = getSpriteConfigForEntity(entity);
-		String baseKey = (config.getPrefix() + actionKey).toLowerCase(Locale.ROOT);
+	public Image getEntitySprite(Species species, int entityId, EntityAction action) {
+		SpriteConfig config = spriteConfigs.get(species);
+		String baseKey = config.getKey(action);
 
-		Image chosen = getPreviouslyChosen(entity.getId(), baseKey);
+		Image chosen = getPreviouslyChosen(entityId, baseKey);
 		if (chosen != null) return chosen;
 
 		List<Image> variants = variantCache.computeIfAbsent(baseKey, k -> Collections.synchronizedList(loadAllVariants(config.getSubFolder(), k)));
 		if (!variants.isEmpty()) {
 			chosen = pickRandom(variants);
-			storeChoice(entity.getId(), baseKey, chosen);
+			storeChoice(entityId, baseKey, chosen);
 			return chosen;
 		}
 
 		// Fallback to idle image if no action variants are found.
-		String fallbackKey = (config.getPrefix() + "idle").toLowerCase(Locale.ROOT);
-		chosen = getPreviouslyChosen(entity.getId(), fallbackKey);
+		String fallbackKey = config.getKey(EntityAction.IDLE);
+		chosen = getPreviouslyChosen(entityId, fallbackKey);
 		if (chosen != null) return chosen;
 
 		List<Image> idleVariants = variantCache.computeIfAbsent(fallbackKey, k -> Collections.synchronizedList(loadAllVariants(config.getSubFolder(), k)));
 		if (!idleVariants.isEmpty()) {
 			chosen = pickRandom(idleVariants);
-			storeChoice(entity.getId(), fallbackKey, chosen);
+			storeChoice(entityId, fallbackKey, chosen);
 			return chosen;
 		}
 
 		return null;
 	}
 
-	/**
-	 * Retrieves the sprite configuration for an entity based on its class.
-	 *
-	 * @param entity the entity.
-	 * @return the corresponding SpriteConfig.
-	 */
-	private SpriteConfig getSpriteConfigForEntity(BasicEntity entity) {
-		
-		// look for match
-		SpriteConfig config = spriteConfigs.get(entity.getClass());
-		if (config != null) {
-			return config;
-		}
-		
-		// fallback to default
-		return spriteConfigs.get(BasicEntity.class);
-	}
-
 	/**
 	 * Loads all sprite variants for the given subfolder and base key.
 	 *
@@ -148,6 +126,15 @@ public class EntitySpriteLoader {
 		return images.get(rng.nextInt(images.size()));
 	}
 
+	/**
+	 * Drops the sprite variants chosen for an entity that left the world.
+	 *
+	 * @param entityId the id of the entity.
+	 */
+	public void forget(int entityId) {
+		chosenCache.remove(entityId);
+	}
+
 	private Image getPreviouslyChosen(int entityId, String baseKey) {
 		Map<String, Image> map = chosenCache.get(entityId);
 		if (map == null) return null;
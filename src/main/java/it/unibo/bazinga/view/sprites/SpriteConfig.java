@@ -1,15 +1,26 @@
 package it.unibo.bazinga.view.sprites;
 
+import java.util.Locale;
+
+import it.unibo.bazinga.model.entity.EntityAction;
+
 /**
  * Holds the sprite configuration for an entity type.
+ * The sprite key of every action is built once, when the configuration is created.
  */
 public class SpriteConfig {
 	private final String subFolder;
 	private final String prefix;
+	private final String[] actionKeys;
 
 	public SpriteConfig(String subFolder, String prefix) {
 		this.subFolder = subFolder;
 		this.prefix = prefix;
+		EntityAction[] actions = EntityAction.values();
+		this.actionKeys = new String[actions.length];
+		for (EntityAction action : actions) {
+			actionKeys[action.ordinal()] = (prefix + action.name()).toLowerCase(Locale.ROOT);
+		}
 	}
 
 	public String getSubFolder() {
@@ -19,5 +30,14 @@ public class SpriteConfig {
 	public String getPrefix() {
 		return prefix;
 	}
-}
 
+	/**
+	 * Returns the base name of the sprites of the given action.
+	 *
+	 * @param action the action.
+	 * @return the sprite key, such as "sheep_move_up".
+	 */
+	public String getKey(EntityAction action) {
+		return actionKeys[action.ordinal()];
+	}
+}
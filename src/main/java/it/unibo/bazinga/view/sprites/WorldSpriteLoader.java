@@ -1,7 +1,7 @@
 package it.unibo.bazinga.view.sprites;
 
 import it.unibo.bazinga.common.SharedConstants;
-import it.unibo.bazinga.model.world.World;
+import it.unibo.bazinga.controller.observer.TerrainSnapshot;
 import javafx.scene.image.Image;
 import java.util.*;
 
@@ -11,8 +11,6 @@ import java.util.*;
 public class WorldSpriteLoader {
 	private List<Image> landSprites;
 	private List<Image> waterSprites;
-	private final Map<World.Tile, Image> cache = new IdentityHashMap<>();
-	private final Random random = new Random();
 	private final String relativeBasePath;
 
 	/**
@@ -31,7 +29,6 @@ public class WorldSpriteLoader {
 		String basePath = SpritePathResolver.getPrefix() + relativeBasePath;
 		landSprites = loadSprites(basePath, "land");
 		waterSprites = loadSprites(basePath, "water");
-		cache.clear();
 	}
 
 	/**
@@ -56,27 +53,37 @@ public class WorldSpriteLoader {
 	}
 
 	/**
-	 * Gets the sprite image for the specified tile.
-	 * @param tile The tile for which to get the sprite image.
+	 * Gets the sprite image for the specified tile; the land sprite of a tile is picked by hashing its coordinates,
+	 * so it stays the same across frames without a cache as large as the world.
+	 * @param terrain The terrain the tile belongs to.
+	 * @param x The x-coordinate of the tile.
+	 * @param y The y-coordinate of the tile.
 	 * @param now The current time in nanoseconds.
 	 * @return The sprite image for the specified tile.
 	 */
-	public Image getTileSprite(World.Tile tile, long now) {
-		if (tile.getType() == World.Tile.TileType.LAND) {
-			return cache.computeIfAbsent(tile, e -> getRandomSprite(landSprites));
+	public Image getTileSprite(TerrainSnapshot terrain, int x, int y, long now) {
+		if (!terrain.isWater(x, y)) {
+			return getHashedSprite(landSprites, x, y);
 		}
 		if (waterSprites.isEmpty()) return null;
 		long currentMillis = now / 1_000_000;
 		int globalIndex = (int) ((currentMillis / (SharedConstants.CAMERA_FRAMERATE * 10)) % waterSprites.size());
-		return waterSprites.get((globalIndex + (tile.getX() + tile.getY())) % waterSprites.size());
+		return waterSprites.get((globalIndex + (x + y)) % waterSprites.size());
 	}
 
 	/**
-	 * Gets a random sprite image from the specified list.
-	 * @param sprites The list of sprite images from which to get a random one.
-	 * @return A random sprite image from the specified list.
+	 * Gets a sprite image from the specified list, scattered over the tiles like a random pick.
+	 * @param sprites The list of sprite images from which to pick one.
+	 * @param x The x-coordinate of the tile.
+	 * @param y The y-coordinate of the tile.
+	 * @return The sprite image for the tile.
 	 */
-	private Image getRandomSprite(List<Image> sprites) {
-		return sprites.isEmpty() ? null : sprites.get(random.nextInt(sprites.size()));
+	private Image getHashedSprite(List<Image> sprites, int x, int y) {
+		if (sprites.isEmpty()) return null;
+		int hash = x * 0x9E3779B1 ^ y * 0x85EBCA6B;
+		hash ^= hash >>> 15;
+		hash *= 0x2C1B3C6D;
+		hash ^= hash >>> 13;
+		return sprites.get(Math.floorMod(hash, sprites.size()));
 	}
 }
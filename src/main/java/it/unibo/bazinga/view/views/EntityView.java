@@ -1,12 +1,12 @@
 package it.unibo.bazinga.view.views;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import it.unibo.bazinga.controller.observer.ModelDTO;
-import it.unibo.bazinga.model.entity.BasicEntity;
-import it.unibo.bazinga.model.world.World;
+import it.unibo.bazinga.controller.observer.ModelDelta;
+import it.unibo.bazinga.controller.observer.TerrainSnapshot;
+import it.unibo.bazinga.model.entity.EntityAction;
+import it.unibo.bazinga.model.entity.Species;
 import it.unibo.bazinga.view.geometry.GeometryRenderer;
 import it.unibo.bazinga.view.handlers.CameraOffsetHandler;
 import it.unibo.bazinga.view.handlers.CullingHandler;
@@ -21,28 +21,37 @@ import javafx.scene.image.Image;
 
 /**
  * The EntityView class is responsible for rendering all entities in the game world.
+ * It keeps its own render state, updated from the changes carried by each ModelDTO,
+ * so it never walks the tiles of the world.
  */
 public class EntityView implements Renderable, SpriteCache {
 	private final EntitySpriteLoader spriteLoader = new EntitySpriteLoader("/entity");
-	private final Map<Integer, InterpolationData> interpolationMap = new HashMap<>();
+	private final Map<Integer, RenderedEntity> rendered = new HashMap<>();
 	private static final long INTERP_DURATION_NANO = 100_000_000L;
 
 	/**
-	 * The InterpolationData class is used to store the previous and current grid positions of an entity,
-	 * as well as the last update time.
+	 * The RenderedEntity class stores what the view knows about an entity: its species, z-index and action,
+	 * as well as the previous and current grid positions and the last update time used for interpolation.
 	 */
-	private static class InterpolationData {
+	private static class RenderedEntity {
+		final Species species;
+		final int zIndex;
+		EntityAction action = EntityAction.IDLE;
 		Point2D previous;
 		Point2D current;
 		long lastUpdateTime;
 
 		/**
-		 * Constructor for InterpolationData.
+		 * Constructor for RenderedEntity.
 		 *
+		 * @param species the species of the entity.
+		 * @param zIndex the z-index of the entity.
 		 * @param pos the initial position.
 		 * @param time the initial time.
 		 */
-		InterpolationData(Point2D pos, long time) {
+		RenderedEntity(Species species, int zIndex, Point2D pos, long time) {
+			this.species = species;
+			this.zIndex = zIndex;
 			this.previous = pos;
 			this.current = pos;
 			this.lastUpdateTime = time;
@@ -63,8 +72,39 @@ public class EntityView implements Renderable, SpriteCache {
 		}
 	}
 
+	/**
+	 * Override the update method to apply the changes of the new model to the render state.
+	 *
+	 * @param modelDTO the model data transfer object.
+	 */
+	@Override
+	public void update(ModelDTO modelDTO) {
+		ModelDelta delta = modelDTO.getDelta();
+		long now = System.nanoTime();
+		for (int i = 0; i < delta.size(); i++) {
+			int id = delta.getEntityId(i);
+			switch (delta.getKind(i)) {
+				case SPAWN:
+					rendered.put(id, new RenderedEntity(delta.getSpecies(i), delta.getZIndex(i), new Point2D(delta.getX(i), delta.getY(i)), now));
+					break;
+				case MOVE:
+					RenderedEntity moved = rendered.get(id);
+					if (moved != null) { moved.update(new Point2D(delta.getX(i), delta.getY(i)), now); }
+					break;
+				case DIE:
+					rendered.remove(id);
+					spriteLoader.forget(id);
+					break;
+				case ACTION:
+					RenderedEntity acting = rendered.get(id);
+					if (acting != null) { acting.action = delta.getAction(i); }
+					break;
+			}
+		}
+	}
+
 	/** 
-	 * Override the render method to render all entities in the world grid.
+	 * Override the render method to render all known entities.
 	 *
 	 * @param gc the graphics context.
 	 * @param modelDTO the model data transfer object.
@@ -74,49 +114,24 @@ public class EntityView implements Renderable, SpriteCache {
 	 */
 	@Override
 	public void render(GraphicsContext gc, ModelDTO modelDTO, PanZoomHandler camera, GeometryRenderer renderer, long now) {
-		World grid = modelDTO.getGrid();
+		TerrainSnapshot grid = modelDTO.getTerrain();
 		double canvasWidth = gc.getCanvas().getWidth();
 		double canvasHeight = gc.getCanvas().getHeight();
 		Point2D cameraOffset = CameraOffsetHandler.computeCameraOffset(renderer, camera, canvasWidth, canvasHeight, grid.getWidth(), grid.getHeight());
 
-		// Collect all entities in the grid.
-		List<BasicEntity> allEntities = new ArrayList<>();
-		for (int x = 0; x < grid.getWidth(); x++) {
-			for (int y = 0; y < grid.getHeight(); y++) {
-				for (BasicEntity entity : grid.getTile(x, y).getEntities()) {
-					if (entity.isAlive()) {
-						allEntities.add(entity);
-					} else {
-						interpolationMap.remove(entity.getId());
-					}
-				}
-			}
-		}
-
 		// batch render entities by z-index.
 		for (int currentZ = 0; currentZ <= 2; currentZ++) {
-			for (BasicEntity entity : allEntities) {
-				if (entity.getZIndex() != currentZ)
+			for (Map.Entry<Integer, RenderedEntity> entry : rendered.entrySet()) {
+				RenderedEntity entity = entry.getValue();
+				if (entity.zIndex != currentZ)
 					continue;
 
-				// Compute the current grid position.
-				Point2D currentGridPos = new Point2D(entity.getX(), entity.getY());
-
-				// Retrieve or initialize interpolation data.
-				InterpolationData interpData = interpolationMap.get(entity.getId());
-				if (interpData == null) {
-					interpData = new InterpolationData(currentGridPos, now);
-					interpolationMap.put(entity.getId(), interpData);
-				} else {
-					interpData.update(currentGridPos, now);
-				}
-
 				// Compute the interpolation fraction using the passed timestamp.
-				double fraction = Math.min(1.0, (double) (now - interpData.lastUpdateTime) / INTERP_DURATION_NANO);
+				double fraction = Math.min(1.0, (double) (now - entity.lastUpdateTime) / INTERP_DURATION_NANO);
 
 				// Get the pixel rectangles for the previous and current grid positions.
-				Rectangle2D prevRect = renderer.computeTileRect((int) interpData.previous.getX(), (int) interpData.previous.getY(), cameraOffset.getX(), cameraOffset.getY(), camera.getScale());
-				Rectangle2D currRect = renderer.computeTileRect((int) interpData.current.getX(), (int) interpData.current.getY(), cameraOffset.getX(), cameraOffset.getY(), camera.getScale());
+				Rectangle2D prevRect = renderer.computeTileRect((int) entity.previous.getX(), (int) entity.previous.getY(), cameraOffset.getX(), cameraOffset.getY(), camera.getScale());
+				Rectangle2D currRect = renderer.computeTileRect((int) entity.current.getX(), (int) entity.current.getY(), cameraOffset.getX(), cameraOffset.getY(), camera.getScale());
 
 				// Linearly interpolate the top-left coordinates.
 				double interpMinX = prevRect.getMinX() + fraction * (currRect.getMinX() - prevRect.getMinX());
@@ -128,8 +143,7 @@ public class EntityView implements Renderable, SpriteCache {
 					continue;
 
 				// Render the entity sprite.
-				String actionKey = modelDTO.getEntityActions().getOrDefault(entity.getId(), "IDLE");
-				Image sprite = spriteLoader.getEntitySprite(entity, actionKey);
+				Image sprite = spriteLoader.getEntitySprite(entity.species, entry.getKey(), entity.action);
 				if (sprite != null) {
 					double spriteSizeX = sprite.getWidth() * camera.getScale();
 					double spriteSizeY = sprite.getHeight() * camera.getScale();
@@ -8,6 +8,7 @@ import it.unibo.bazinga.controller.observer.ModelDTO;
 import it.unibo.bazinga.view.geometry.GeometryRenderer;
 import it.unibo.bazinga.view.geometry.IsometricRenderer;
 import it.unibo.bazinga.view.geometry.TopDownRenderer;
+import it.unibo.bazinga.view.jfr.RenderFrameEvent;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 
@@ -73,18 +74,37 @@ public class StackView<T extends StackView.Renderable> extends Canvas {
 	}
 
 	/**
-	 * Triggers the rendering of each renderable.
+	 * Triggers the rendering of each renderable, recording the frame as a flight recorder event.
 	 *
 	 * @param modelDTO the model to render.
 	 * @param now      the current time.
 	 */
 	public void render(ModelDTO modelDTO, long now) {
+		RenderFrameEvent event = new RenderFrameEvent();
+		event.begin();
 		currentModelDTO = modelDTO;
 		GraphicsContext gc = getGraphicsContext2D();
 		gc.clearRect(0, 0, getWidth(), getHeight());
 		for (T renderable : renderables) {
 			renderable.render(gc, modelDTO, camera, geometryRenderer, now);
 		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.tick = modelDTO != null ? modelDTO.getTick() : -1;
+			event.renderables = renderables.size();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Hands a new model to each renderable, so it can update its own state once per model update.
+	 *
+	 * @param modelDTO the new model.
+	 */
+	public void update(ModelDTO modelDTO) {
+		for (T renderable : renderables) {
+			renderable.update(modelDTO);
+		}
 	}
 
 	/**
@@ -102,6 +122,7 @@ public class StackView<T extends StackView.Renderable> extends Canvas {
 	 * Interface for objects that can be rendered.
 	 */
 	public interface Renderable {
+		default void update(it.unibo.bazinga.controller.observer.ModelDTO modelDTO) { }
 		void render(javafx.scene.canvas.GraphicsContext gc, 
 				it.unibo.bazinga.controller.observer.ModelDTO modelDTO,
 				it.unibo.bazinga.view.handlers.PanZoomHandler camera, 
@@ -1,10 +1,11 @@
 package it.unibo.bazinga.view.views;
 
 import it.unibo.bazinga.controller.observer.ModelDTO;
-import it.unibo.bazinga.model.world.World;
+import it.unibo.bazinga.controller.observer.TerrainSnapshot;
 import it.unibo.bazinga.view.geometry.GeometryRenderer;
 import it.unibo.bazinga.view.handlers.CameraOffsetHandler;
 import it.unibo.bazinga.view.handlers.CullingHandler;
+import it.unibo.bazinga.view.handlers.PanZoomHandler;
 import it.unibo.bazinga.view.sprites.WorldSpriteLoader;
 import it.unibo.bazinga.view.sprites.SpriteCache;
 import javafx.geometry.Point2D;
@@ -17,9 +18,11 @@ import javafx.scene.paint.Color;
  * The WorldView class is responsible for rendering the world grid (terrain).
  */
 public class WorldView implements StackView.Renderable, SpriteCache {
+	private static final int VISIBLE_MARGIN = 2;
 	private final WorldSpriteLoader spriteLoader = new WorldSpriteLoader("/world");
 	private int highlightedTileX = -1;
 	private int highlightedTileY = -1;
+	private int visibleMinX, visibleMinY, visibleMaxX = -1, visibleMaxY = -1;
 
 	/**
 	 * The render method is called by the view manager to render the world grid.
@@ -31,18 +34,21 @@ public class WorldView implements StackView.Renderable, SpriteCache {
 	 * @param now The current time in milliseconds.
 	 */
 	@Override
-	public void render(GraphicsContext gc, ModelDTO modelDTO, it.unibo.bazinga.view.handlers.PanZoomHandler camera, GeometryRenderer renderer, long now) {
-		World grid = modelDTO.getGrid();
+	public void render(GraphicsContext gc, ModelDTO modelDTO, PanZoomHandler camera, GeometryRenderer renderer, long now) {
+		TerrainSnapshot grid = modelDTO.getTerrain();
 		Point2D cameraOffset = CameraOffsetHandler.computeCameraOffset(renderer, camera, gc.getCanvas().getWidth(), gc.getCanvas().getHeight(), grid.getWidth(), grid.getHeight());
 
-		// Render all tiles.
-		for (int x = 0; x < grid.getWidth(); x++) {
-			for (int y = 0; y < grid.getHeight(); y++) {
+		// Render the tiles under the canvas, with a margin for sprites taller than their tile.
+		updateVisibleTiles(gc, grid, camera, renderer, cameraOffset);
+		for (int x = visibleMinX; x <= visibleMaxX; x++) {
+			for (int y = visibleMinY; y <= visibleMaxY; y++) {
+				if (!grid.isGenerated(x, y))
+					continue;
 				Rectangle2D rect = renderer.computeTileRect(x, y, cameraOffset.getX(), cameraOffset.getY(), camera.getScale());
 				if (!CullingHandler.isRectVisible(rect.getMinX(), rect.getMinY(), rect.getWidth(), rect.getHeight(), gc.getCanvas().getWidth(), gc.getCanvas().getHeight()))
 					continue;
 
-				Image sprite = spriteLoader.getTileSprite(grid.getTile(x, y), now);
+				Image sprite = spriteLoader.getTileSprite(grid, x, y, now);
 				if (sprite != null) {
 					gc.drawImage(sprite, rect.getMinX(), rect.getMinY(), rect.getWidth(), rect.getHeight());
 				}
@@ -56,6 +62,32 @@ public class WorldView implements StackView.Renderable, SpriteCache {
 		}
 	}
 
+	// bound the tiles under the four corners of the canvas, clipped to the grid
+	private void updateVisibleTiles(GraphicsContext gc, TerrainSnapshot grid, PanZoomHandler camera, GeometryRenderer renderer, Point2D cameraOffset) {
+		double width = gc.getCanvas().getWidth(), height = gc.getCanvas().getHeight();
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (Point2D corner : new Point2D[] { new Point2D(0, 0), new Point2D(width, 0), new Point2D(0, height), new Point2D(width, height) }) {
+			Point2D tile = renderer.screenToGrid(corner, camera.getScale(), cameraOffset);
+			minX = Math.min(minX, tile.getX());
+			minY = Math.min(minY, tile.getY());
+			maxX = Math.max(maxX, tile.getX());
+			maxY = Math.max(maxY, tile.getY());
+		}
+		visibleMinX = (int) Math.max(0, minX - VISIBLE_MARGIN);
+		visibleMinY = (int) Math.max(0, minY - VISIBLE_MARGIN);
+		visibleMaxX = (int) Math.min(grid.getWidth() - 1, maxX + VISIBLE_MARGIN);
+		visibleMaxY = (int) Math.min(grid.getHeight() - 1, maxY + VISIBLE_MARGIN);
+	}
+
+	/**
+	 * Returns the tiles drawn by the last render, as {minX, minY, maxX, maxY} in grid coordinates.
+	 *
+	 * @return the bounds of the visible tiles, inclusive.
+	 */
+	public int[] getVisibleTiles() {
+		return new int[] { visibleMinX, visibleMinY, visibleMaxX, visibleMaxY };
+	}
+
 	/**
 	 * The reloadSprites method is called by the view manager to reload the sprites
 	 * (useful when the sprites are changed at runtime).
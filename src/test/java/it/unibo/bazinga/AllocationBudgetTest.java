@@ -0,0 +1,116 @@
+package it.unibo.bazinga;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import it.unibo.bazinga.common.SharedConstants;
+import it.unibo.bazinga.model.entity.ArrayEntityStore;
+import it.unibo.bazinga.model.entity.BasicEntity;
+import it.unibo.bazinga.model.entity.EntityManager;
+import it.unibo.bazinga.model.entity.EntityStore;
+import it.unibo.bazinga.model.entity.PlantEntity;
+import it.unibo.bazinga.model.entity.SheepEntity;
+import it.unibo.bazinga.model.entity.WolfEntity;
+import it.unibo.bazinga.model.world.World;
+
+/**
+ * Measures the bytes allocated by EntityManager.updateCycle on fixed, seeded scenarios, and fails
+ * when a scenario allocates more per tick than the budget recorded in allocation-budgets.properties.
+ * When a change brings a scenario well below its budget, lower the budget to lock the gain in.
+ */
+public class AllocationBudgetTest {
+	private static final int ROUNDS = 10;
+	private static final int MEASURED_TICKS = 100;
+	private static final Properties BUDGETS = loadBudgets();
+
+	// The default configuration: 64x64 world, a plant every 4 tiles, a sheep every 16, 4 wolves.
+	@Test
+	public void testDefaultWorldAllocationBudget() {
+		checkBudget("default-64", 64, 1024, 256, 4, () -> null);
+	}
+
+	// A larger, twice as crowded world.
+	@Test
+	public void testDenseWorldAllocationBudget() {
+		checkBudget("dense-128", 128, 8192, 2048, 32, () -> null);
+	}
+
+	// The default configuration with the state of the entities kept in columns.
+	@Test
+	public void testColumnStorageAllocationBudget() {
+		checkBudget("columns-64", 64, 1024, 256, 4, ArrayEntityStore::new);
+	}
+
+	private void checkBudget(String scenario, int size, int plants, int sheep, int wolves, Supplier<EntityStore> store) {
+		String budget = BUDGETS.getProperty(scenario);
+		assertNotNull(budget, "No allocation budget recorded for " + scenario);
+		long bytesPerTick = measure(scenario, size, plants, sheep, wolves, store);
+		assertTrue(bytesPerTick <= Long.parseLong(budget),
+				scenario + " allocates " + bytesPerTick + " bytes per tick, over its budget of " + budget);
+	}
+
+	// average the bytes this thread allocates over the first ticks of a fresh copy of the scenario, while the
+	// whole population is still alive; the copy is run several times and the lowest figure is kept: the first
+	// runs also pay for the code that is not compiled yet, and a single run after a warm-up swings by several
+	// times depending on when the JIT kicks in, while the lowest of the rounds is stable from run to run
+	private long measure(String scenario, int size, int plants, int sheep, int wolves, Supplier<EntityStore> store) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		long lowest = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++) {
+			EntityManager entityManager = createScenario(scenario, size, plants, sheep, wolves, store.get());
+			long before = threads.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < MEASURED_TICKS; i++) { entityManager.updateCycle(); }
+			lowest = Math.min(lowest, (threads.getThreadAllocatedBytes(thread) - before) / MEASURED_TICKS);
+		}
+		return lowest;
+	}
+
+	// the world and the placement of the entities are seeded by the name of the scenario
+	private EntityManager createScenario(String scenario, int size, int plants, int sheep, int wolves, EntityStore store) {
+		World world = new World(size, size, scenario.hashCode());
+		EntityManager entityManager = new EntityManager(world, store);
+		populate(world, entityManager, new Random(scenario.hashCode()), plants, sheep, wolves);
+		return entityManager;
+	}
+
+	// place the entities at seeded random positions: one plant and one animal at most per tile
+	private void populate(World world, EntityManager entityManager, Random random, int plants, int sheep, int wolves) {
+		int size = world.getWidth();
+		// a seeded lake in the middle, so that water checks are part of the tick
+		for (int x = size / 4; x < size / 2; x++) {
+			for (int y = size / 4; y < size / 2; y++) { world.setTile(x, y, new World.Tile(x, y, World.Tile.TileType.WATER)); }
+		}
+		for (int i = 0; i < plants + sheep + wolves; ) {
+			int x = random.nextInt(size), y = random.nextInt(size);
+			if (world.isWater(x, y)) { continue; }
+			boolean plant = i < plants;
+			if (plant ? world.hasPlant(x, y) : world.hasAnimal(x, y)) { continue; }
+			BasicEntity entity = plant ? new PlantEntity(world, x, y, 1)
+					: i < plants + sheep ? new SheepEntity(world, x, y, SharedConstants.SHEEP_ENERGY_DEFAULT)
+					: new WolfEntity(world, x, y, SharedConstants.WOLF_ENERGY_DEFAULT);
+			entityManager.addEntity(entity);
+			i++;
+		}
+	}
+
+	private static Properties loadBudgets() {
+		Properties budgets = new Properties();
+		try (InputStream input = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+			if (input != null) { budgets.load(input); }
+		}
+		catch (IOException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+		return budgets;
+	}
+}
@@ -6,17 +6,64 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
 
+import jdk.jfr.EventType;
+import javafx.stage.WindowEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import it.unibo.bazinga.common.LatencyHistogram;
 import it.unibo.bazinga.common.SharedConstants;
+import it.unibo.bazinga.common.TickProfiler;
+import it.unibo.bazinga.controller.Controller;
+import it.unibo.bazinga.controller.observer.ModelDTO;
+import it.unibo.bazinga.controller.observer.ModelDelta;
+import it.unibo.bazinga.controller.observer.ModelObserver;
+import it.unibo.bazinga.controller.observer.TerrainSnapshot;
+import it.unibo.bazinga.model.DeltaRecorder;
+import it.unibo.bazinga.model.Model;
+import it.unibo.bazinga.model.SimulationEngine;
 import it.unibo.bazinga.model.entity.ActionHandler;
+import it.unibo.bazinga.model.entity.ArrayEntityStore;
 import it.unibo.bazinga.model.entity.BasicEntity;
+import it.unibo.bazinga.model.entity.BufferEntityStore;
+import it.unibo.bazinga.model.entity.EntityAction;
+import it.unibo.bazinga.model.entity.EntityIdAllocator;
 import it.unibo.bazinga.model.entity.EntityManager;
+import it.unibo.bazinga.model.entity.EntityStore;
+import it.unibo.bazinga.model.entity.EntitySystems;
 import it.unibo.bazinga.model.entity.PlantEntity;
+import it.unibo.bazinga.model.entity.PlantRegrowthSchedule;
 import it.unibo.bazinga.model.entity.SheepEntity;
+import it.unibo.bazinga.model.entity.SpatialIndex;
+import it.unibo.bazinga.model.entity.Species;
 import it.unibo.bazinga.model.entity.WolfEntity;
+import it.unibo.bazinga.model.jfr.DeathEvent;
+import it.unibo.bazinga.model.jfr.EvictionEvent;
+import it.unibo.bazinga.model.jfr.TickEvent;
+import it.unibo.bazinga.model.world.ChunkStreamer;
+import it.unibo.bazinga.model.world.NoiseWorldGenerator;
 import it.unibo.bazinga.model.world.World;
 import it.unibo.bazinga.model.world.WorldManager;
 
@@ -107,6 +154,28 @@ public class SimulationTest {
 		assertTrue(actions.isEmpty(), "Move into water should be rejected for a sheep");
 	}
 
+	// Two moves into the same empty tile should be resolved in favour of the lowest entity id.
+	@Test
+	public void testConflictingMovesReserveTileOnce() {
+		World world = createWorld(10, 10);
+		EntityManager em = new EntityManager(world);
+		SheepEntity first = new SheepEntity(world, 1, 2, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		SheepEntity second = new SheepEntity(world, 3, 2, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		em.addEntity(first);
+		em.addEntity(second);
+		ActionHandler handler = new ActionHandler(world, em);
+
+		// Validate the higher id first to show that the order of validation does not matter.
+		List<ActionHandler.Action> actions = handler.validateRequests(List.of(
+				new ActionHandler.RequestWrapper(second, new BasicEntity.Request(BasicEntity.ActionType.MOVE, BasicEntity.Direction.LEFT)),
+				new ActionHandler.RequestWrapper(first, new BasicEntity.Request(BasicEntity.ActionType.MOVE, BasicEntity.Direction.RIGHT))));
+		assertEquals(1, actions.size(), "Only one of the conflicting moves should be approved");
+		assertEquals(first, actions.get(0).entity, "The entity with the lowest id should win the tile");
+
+		handler.processActions(actions);
+		assertEquals(1, world.getTile(2, 2).getEntities().size(), "The contested tile should hold a single entity");
+	}
+
 	// Processing a MOVE action should update the entity's position and reduce its energy.
 	@Test
 	public void testProcessMoveAction() {
@@ -182,6 +251,676 @@ public class SimulationTest {
 		assertFalse(em.getEntities().contains(sheep), "The entities list should not include a dead sheep");
 	}
 
+	// The spatial index should return the closest prey even when it lies in a neighbouring cell.
+	@Test
+	public void testSpatialIndexFindsNearestAcrossCells() {
+		World world = createWorld(20, 20);
+		EntityManager em = new EntityManager(world);
+		WolfEntity wolf = new WolfEntity(world, 7, 7, SharedConstants.WOLF_ENERGY_DEFAULT);
+		SheepEntity near = new SheepEntity(world, 9, 7, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		SheepEntity far = new SheepEntity(world, 0, 0, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		em.addEntity(wolf);
+		em.addEntity(near);
+		em.addEntity(far);
+
+		BasicEntity.Request request = wolf.getNextRequest();
+		assertEquals(BasicEntity.Direction.RIGHT, request.direction, "Wolf should head for the closest sheep");
+
+		em.killEntity(near);
+		request = wolf.getNextRequest();
+		assertEquals(BasicEntity.Direction.LEFT, request.direction, "Wolf should ignore dead sheep and head for the next one");
+	}
+
+	// The spatial index should search across chunks and find entities again after their chunk page was dropped.
+	@Test
+	public void testSpatialIndexAcrossChunkPages() {
+		World world = createWorld(200, 200);
+		SpatialIndex index = new SpatialIndex(200, 200);
+		WolfEntity wolf = new WolfEntity(world, 64, 64, SharedConstants.WOLF_ENERGY_DEFAULT);
+		SheepEntity corner = new SheepEntity(world, 63, 63, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		SheepEntity far = new SheepEntity(world, 150, 10, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		index.add(wolf);
+		index.add(corner);
+		index.add(far);
+		assertEquals(corner, index.findNearest(wolf, SheepEntity.class, 199), "The closest sheep is in the neighbouring chunk");
+
+		index.remove(corner);
+		assertEquals(far, index.findNearest(wolf, SheepEntity.class, 199), "A removed sheep should not be found");
+		index.remove(far);
+		assertNull(index.findNearest(wolf, SheepEntity.class, 199), "No sheep should be left");
+		index.add(corner);
+		assertEquals(corner, index.findNearest(wolf, SheepEntity.class, 199), "A sheep added to a dropped page should be found again");
+	}
+
+	// Parallel decisions should yield one request per acting entity, in the order of the entity list.
+	@Test
+	public void testParallelCollectRequestsKeepsOrder() {
+		World world = createWorld(40, 40);
+		EntityManager em = new EntityManager(world);
+		for (int x = 0; x < 40; x += 2) {
+			for (int y = 0; y < 40; y += 2) { em.addEntity(new WolfEntity(world, x, y, SharedConstants.WOLF_ENERGY_DEFAULT)); }
+		}
+		List<BasicEntity> wolves = em.getEntities();
+		ActionHandler handler = new ActionHandler(world, em, 4);
+
+		int acting = 0;
+		for (int tick = 0; tick < SharedConstants.WOLF_MOVEMENT_SPEED; tick++) {
+			List<ActionHandler.RequestWrapper> requests = handler.collectRequests(wolves);
+			for (int i = 1; i < requests.size(); i++) {
+				assertTrue(wolves.indexOf(requests.get(i - 1).entity) < wolves.indexOf(requests.get(i).entity), "Requests should follow the entity order");
+			}
+			acting += requests.size();
+		}
+		assertEquals(wolves.size(), acting, "Every wolf should act once per movement period");
+	}
+
+	// With column storage, entities should read their state from the store and get it back when removed.
+	@Test
+	public void testColumnStorageBackend() {
+		World world = createWorld(10, 10);
+		ArrayEntityStore store = new ArrayEntityStore();
+		EntityManager em = new EntityManager(world, store);
+		SheepEntity starving = new SheepEntity(world, 1, 1, 1);
+		SheepEntity sheep = new SheepEntity(world, 5, 5, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		PlantEntity plant = new PlantEntity(world, 8, 8, 1);
+		em.addEntity(starving);
+		em.addEntity(sheep);
+		em.addEntity(plant);
+		assertEquals(3, store.size(), "Every managed entity should occupy a slot");
+
+		em.updateCycle();
+		assertFalse(starving.isAttached(), "A dead sheep should leave the store");
+		assertEquals(0, starving.getEnergy(), "A detached sheep should keep its final energy");
+		assertEquals(2, store.size(), "The store should stay dense after a removal");
+		assertEquals(1, EntitySystems.countAlive(store, Species.SHEEP), "One sheep should still be alive");
+		assertTrue(sheep.getEnergy() < SharedConstants.SHEEP_ENERGY_DEFAULT, "The energy system should drain the living sheep");
+		assertEquals(8, plant.getX(), "A relocated entity should still read its own column");
+		assertEquals(1, plant.getEnergy(), "Plants should not lose energy");
+	}
+
+	// A die-off should remove every dead entity and keep the survivors in their original order.
+	@Test
+	public void testDieOffKeepsSurvivorOrder() {
+		World world = createWorld(100, 100);
+		EntityManager em = new EntityManager(world);
+		List<BasicEntity> survivors = new java.util.ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			boolean starving = i % 3 != 0;
+			SheepEntity sheep = new SheepEntity(world, i % 10 * 10, i / 10 * 10, starving ? 1 : SharedConstants.SHEEP_ENERGY_DEFAULT);
+			em.addEntity(sheep);
+			if (!starving) { survivors.add(sheep); }
+		}
+
+		em.updateCycle();
+		assertEquals(survivors, em.getEntities().subList(0, survivors.size()), "Survivors should keep their order");
+		for (BasicEntity entity : em.getEntities()) { assertTrue(entity.isAlive(), "No dead entity should remain"); }
+	}
+
+	// Plants should regrow exactly on their scheduled tick, even beyond the initial size of the wheel.
+	@Test
+	public void testRegrowthScheduleDrainsOnDueTick() {
+		World world = createWorld(10, 10);
+		PlantRegrowthSchedule schedule = new PlantRegrowthSchedule(1);
+		PlantEntity now = new PlantEntity(world, 1, 1, 0);
+		PlantEntity soon = new PlantEntity(world, 2, 2, 0);
+		PlantEntity late = new PlantEntity(world, 3, 3, 0);
+		schedule.schedule(soon, 3);
+		schedule.schedule(now, 0);
+		schedule.schedule(late, 5);
+		assertEquals(3, schedule.size(), "Every plant should be waiting");
+
+		java.util.Map<PlantEntity, Integer> regrownAt = new java.util.HashMap<>();
+		for (int tick = 0; tick <= 6; tick++) {
+			final int current = tick;
+			schedule.drainDue(p -> regrownAt.put(p, current));
+		}
+		assertEquals(0, (int) regrownAt.get(now), "A zero delay should regrow on the current tick");
+		assertEquals(3, (int) regrownAt.get(soon), "The plant should regrow after its delay");
+		assertEquals(5, (int) regrownAt.get(late), "Growing the wheel should keep the due tick");
+		assertEquals(0, schedule.size(), "No plant should be left waiting");
+	}
+
+	// A dead sheep's slot should be reused with a new generation, and its stale id should no longer resolve.
+	@Test
+	public void testEntityIdsReuseSlotsWithGenerations() {
+		World world = createWorld(10, 10);
+		EntityManager em = new EntityManager(world);
+		SheepEntity dead = new SheepEntity(world, 1, 1, 1);
+		em.addEntity(dead);
+		em.updateCycle();
+		assertNull(em.getEntityById(dead.getId()), "A dead sheep should not be found");
+
+		SheepEntity reborn = new SheepEntity(world, 5, 5, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		em.addEntity(reborn);
+		assertEquals(EntityIdAllocator.slotOf(dead.getId()), EntityIdAllocator.slotOf(reborn.getId()), "The freed slot should be reused");
+		assertFalse(dead.getId() == reborn.getId(), "The reused slot should carry a new generation");
+		assertNull(em.getEntityById(dead.getId()), "A stale id should not resolve to the new entity");
+		assertEquals(reborn, em.getEntityById(reborn.getId()), "The new entity should be found by its id");
+	}
+
+	// The occupancy bitmaps should follow water tiles, plants and moving animals.
+	@Test
+	public void testOccupancyBitsFollowEntities() {
+		World world = createWorld(10, 10);
+		world.setTile(7, 7, new World.Tile(7, 7, World.Tile.TileType.WATER));
+		EntityManager em = new EntityManager(world);
+		SheepEntity sheep = new SheepEntity(world, 2, 2, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		PlantEntity plant = new PlantEntity(world, 4, 4, 1);
+		em.addEntity(sheep);
+		em.addEntity(plant);
+		assertTrue(world.isWater(7, 7), "The water tile should be flagged");
+		assertTrue(world.hasAnimal(2, 2), "The sheep's tile should hold an animal");
+		assertTrue(world.hasPlant(4, 4) && !world.hasAnimal(4, 4), "The plant's tile should only hold a plant");
+
+		ActionHandler handler = new ActionHandler(world, em);
+		handler.processActions(handler.validateRequests(List.of(new ActionHandler.RequestWrapper(sheep,
+				new BasicEntity.Request(BasicEntity.ActionType.MOVE, BasicEntity.Direction.RIGHT)))));
+		assertFalse(world.isOccupied(2, 2), "The old tile should be free after the move");
+		assertTrue(world.hasAnimal(3, 2), "The new tile should hold the sheep");
+	}
+
+	// The request chosen during the cycle should be recorded on the entity for the view.
+	@Test
+	public void testCycleRecordsChosenRequest() {
+		World world = createWorld(10, 10);
+		EntityManager em = new EntityManager(world);
+		WolfEntity wolf = new WolfEntity(world, 5, 5, SharedConstants.WOLF_ENERGY_DEFAULT);
+		SheepEntity sheep = new SheepEntity(world, 5, 6, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		em.addEntity(wolf);
+		em.addEntity(sheep);
+		assertNull(wolf.getLastRequest(), "No decision should be recorded before the first cycle");
+		assertEquals(EntityAction.IDLE, wolf.getLastAction(), "An entity should look idle before it acts");
+
+		em.updateCycle();
+		assertNotNull(wolf.getLastRequest(), "The wolf's decision should be recorded");
+		assertEquals(sheep.getId(), wolf.getLastRequest().targetId, "The recorded request should target the sheep");
+		assertEquals(EntityAction.EAT, wolf.getLastAction(), "The recorded action should be resolved when deciding");
+	}
+
+	// The recorder should report spawns, action changes and deaths in the order they happened.
+	@Test
+	public void testDeltaRecorderTracksChanges() {
+		World world = createWorld(10, 10);
+		EntityManager em = new EntityManager(world);
+		DeltaRecorder recorder = new DeltaRecorder();
+		em.setListener(recorder);
+		WolfEntity wolf = new WolfEntity(world, 5, 5, SharedConstants.WOLF_ENERGY_DEFAULT);
+		SheepEntity sheep = new SheepEntity(world, 5, 6, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		em.addEntity(wolf);
+		em.addEntity(sheep);
+		em.updateCycle();
+
+		ModelDelta delta = recorder.drain();
+		assertEquals(4, delta.size(), "Two spawns, one action change and one death should be recorded");
+		assertEquals(ModelDelta.Kind.SPAWN, delta.getKind(0), "The wolf should spawn first");
+		assertEquals(Species.SHEEP, delta.getSpecies(1), "The second spawn should be the sheep");
+		assertEquals(ModelDelta.Kind.ACTION, delta.getKind(2), "The wolf should change action");
+		assertEquals(EntityAction.EAT, delta.getAction(2), "The wolf should be shown eating");
+		assertEquals(ModelDelta.Kind.DIE, delta.getKind(3), "The sheep should die");
+		assertEquals(sheep.getId(), delta.getEntityId(3), "The death should refer to the sheep");
+		assertEquals(0, recorder.getCount(Species.SHEEP), "No sheep should be counted");
+		assertEquals(1, recorder.getCount(Species.WOLF), "The wolf should be counted");
+		assertEquals(0, recorder.drain().size(), "Draining should start a new delta");
+	}
+
+	// Snapshots taken from another thread while the simulation runs should add up to the live population.
+	@Test
+	public void testSimulationThreadPublishesCompleteSnapshots() throws InterruptedException {
+		Model model = new Model(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		model.setUpdateInterval(0);
+		BlockingQueue<ModelDTO> received = new LinkedBlockingQueue<>();
+		model.addObserver(received::add);
+		Set<Integer> alive = new HashSet<>();
+		ModelDTO last = null;
+		model.start();
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while ((last == null || last.getTick() < 20) && System.nanoTime() < deadline) {
+			ModelDTO dto = received.poll(10, TimeUnit.MILLISECONDS);
+			if (dto == null) { continue; }
+			replay(dto.getDelta(), alive);
+			last = dto;
+		}
+		model.stop();
+
+		assertNotNull(last, "The simulation thread should publish snapshots");
+		assertEquals(population(last), alive.size(), "Replaying every delta should rebuild the population of the last snapshot");
+	}
+
+	// A slow observer should receive fewer, merged snapshots while a fast one keeps up with every tick.
+	@Test
+	public void testSlowObserverSkipsTicksWithoutLosingChanges() throws InterruptedException {
+		Model model = new Model(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		model.setUpdateInterval(0);
+		AtomicLong fastTick = new AtomicLong();
+		AtomicInteger slowCalls = new AtomicInteger();
+		AtomicReference<ModelDTO> slowLast = new AtomicReference<>();
+		Set<Integer> alive = ConcurrentHashMap.newKeySet();
+		model.addObserver(dto -> fastTick.set(dto.getTick()));
+		model.addObserver(dto -> {
+			replay(dto.getDelta(), alive);
+			slowCalls.incrementAndGet();
+			slowLast.set(dto);
+			try { Thread.sleep(10); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+		});
+		model.start();
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (fastTick.get() < 200 && System.nanoTime() < deadline) { Thread.sleep(5); }
+		model.stop();
+		// let the slow observer catch up with the last tick
+		while ((slowLast.get() == null || slowLast.get().getTick() < fastTick.get()) && System.nanoTime() < deadline) { Thread.sleep(5); }
+
+		assertTrue(fastTick.get() >= 200, "A slow observer should not hold the simulation up");
+		assertEquals(fastTick.get(), slowLast.get().getTick(), "The slow observer should end on the last tick");
+		assertTrue(slowCalls.get() < slowLast.get().getTick(), "The slow observer should skip intermediate ticks");
+		assertEquals(population(slowLast.get()), alive.size(), "Merged snapshots should not lose any change");
+	}
+
+	// An observer stuck for many ticks should get one change set per entity, not every record since it fell behind.
+	@Test
+	public void testStuckObserverGetsCoalescedChanges() throws InterruptedException {
+		Model model = new Model(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		model.setUpdateInterval(0);
+		AtomicLong fastTick = new AtomicLong();
+		BlockingQueue<ModelDTO> received = new LinkedBlockingQueue<>();
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		model.addObserver(dto -> fastTick.set(dto.getTick()));
+		model.addObserver(dto -> {
+			boolean held = calls.incrementAndGet() == 1;
+			received.add(dto);
+			// hold the first snapshot until the test lets go
+			if (held) {
+				try { release.await(5, TimeUnit.SECONDS); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+			}
+		});
+		model.start();
+		ModelDTO first = received.poll(5, TimeUnit.SECONDS);
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (fastTick.get() < first.getTick() + 300 && System.nanoTime() < deadline) { Thread.sleep(5); }
+		model.stop();
+		release.countDown();
+		ModelDTO second = received.poll(5, TimeUnit.SECONDS);
+
+		assertNotNull(second, "The stuck observer should get the changes once it takes snapshots again");
+		Set<Integer> alive = new HashSet<>();
+		replay(first.getDelta(), alive);
+		replay(second.getDelta(), alive);
+		assertEquals(population(second), alive.size(), "Coalesced changes should not lose any entity");
+		ModelDelta delta = second.getDelta();
+		Set<String> seen = new HashSet<>();
+		Set<Integer> spawned = new HashSet<>();
+		for (int i = 0; i < delta.size(); i++) {
+			assertTrue(seen.add(delta.getKind(i) + "#" + delta.getEntityId(i)), "Each entity should have at most one change of each kind");
+			if (delta.getKind(i) == ModelDelta.Kind.SPAWN) { spawned.add(delta.getEntityId(i)); }
+			if (delta.getKind(i) == ModelDelta.Kind.DIE) { assertFalse(spawned.contains(delta.getEntityId(i)), "An entity that came and left in between should not show up"); }
+		}
+	}
+
+	// Hiding the window of the simulation should stop the model, as JavaFX does not stop a controller it did not launch.
+	@Test
+	public void testClosingTheWindowStopsTheModel() throws InterruptedException {
+		Model model = new Model(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		model.setUpdateInterval(0);
+		model.start();
+		Controller.stopping(model).handle(new WindowEvent(null, WindowEvent.WINDOW_HIDDEN));
+		assertFalse(model.isRunning(), "The model should stop when its window is hidden");
+		long tick = model.getEngine().getTickCount();
+		Thread.sleep(20);
+		assertEquals(tick, model.getEngine().getTickCount(), "No cycle should run after the window is hidden");
+		model.start();
+		assertFalse(model.isRunning(), "A stopped model should not start again");
+	}
+
+	// Removing observers while the model runs should never take the simulation thread down with them.
+	@Test
+	public void testRemovingAnObserverWhileRunning() throws InterruptedException {
+		Model model = new Model(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		model.setUpdateInterval(0);
+		BlockingQueue<ModelDTO> received = new LinkedBlockingQueue<>();
+		model.addObserver(received::add);
+		model.start();
+		for (int i = 0; i < 200; i++) {
+			ModelObserver passing = dto -> { };
+			model.addObserver(passing);
+			Thread.yield();
+			model.removeObserver(passing);
+		}
+		long tick = model.getEngine().getTickCount();
+		ModelDTO later = received.poll(5, TimeUnit.SECONDS);
+		while (later != null && later.getTick() <= tick) { later = received.poll(5, TimeUnit.SECONDS); }
+		model.stop();
+		assertNotNull(later, "The simulation should keep running and notifying after observers are removed");
+	}
+
+	// In turbo mode every snapshot should cover a whole batch of cycles.
+	@Test
+	public void testTicksPerUpdatePublishesOncePerBatch() throws InterruptedException {
+		Model model = new Model(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		model.setUpdateInterval(0);
+		model.setTicksPerUpdate(8);
+		BlockingQueue<ModelDTO> received = new LinkedBlockingQueue<>();
+		model.addObserver(received::add);
+		model.start();
+		ModelDTO first = received.poll(5, TimeUnit.SECONDS);
+		ModelDTO second = received.poll(5, TimeUnit.SECONDS);
+		model.stop();
+
+		assertNotNull(second, "The simulation should keep publishing in turbo mode");
+		assertEquals(8, first.getTick(), "The first snapshot should come after a whole batch");
+		assertEquals(0, second.getTick() % 8, "Snapshots should only be taken between batches");
+	}
+
+	// Every phase of a cycle should be timed, and the histograms should report percentiles within one bucket.
+	@Test
+	public void testTickProfilerTimesEveryPhase() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 1000; i++) { histogram.record(i * 1000L); }
+		assertEquals(1000, histogram.getCount(), "Every sample should be counted");
+		assertEquals(1_000_000, histogram.getMax(), "The max should be exact");
+		assertTrue(Math.abs(histogram.getPercentile(50) - 500_000) <= 500_000 / 8, "The median should be within one bucket");
+		assertTrue(Math.abs(histogram.getPercentile(99) - 990_000) <= 990_000 / 8, "The p99 should be within one bucket");
+
+		SimulationEngine engine = new SimulationEngine(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		engine.step(10);
+		TickProfiler profiler = engine.getEntityManager().getProfiler();
+		for (TickProfiler.Phase phase : List.of(TickProfiler.Phase.REDUCE_ENERGY, TickProfiler.Phase.COLLECT_REQUESTS, TickProfiler.Phase.RESURRECT_PLANTS)) {
+			assertEquals(10, profiler.getHistogram(phase).getCount(), phase + " should be timed once per cycle");
+		}
+		assertEquals(0, profiler.getHistogram(TickProfiler.Phase.RENDER).getCount(), "Nothing was rendered");
+	}
+
+	// A flight recording should hold one tick event per cycle, and no entity events unless they are enabled.
+	@Test
+	public void testFlightRecorderTickEvents() throws IOException {
+		SimulationEngine engine = new SimulationEngine(SharedConstants.WORLD_WIDTH, SharedConstants.WORLD_HEIGHT);
+		Path file = Files.createTempFile("bazinga", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(TickEvent.class);
+			recording.start();
+			engine.step(20);
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		Files.delete(file);
+
+		List<RecordedEvent> ticks = events.stream().filter(e -> e.getEventType().getName().equals("it.unibo.bazinga.Tick")).toList();
+		assertEquals(20, ticks.size(), "Every cycle should be recorded");
+		RecordedEvent last = ticks.get(ticks.size() - 1);
+		assertEquals(engine.getEntityManager().getEntities().size(), last.getInt("entities"), "The last tick should report the living entities");
+		assertEquals(last.getInt("entities"), last.getInt("plants") + last.getInt("sheep") + last.getInt("wolves"), "The species counts should add up");
+		String deathEnabled = EventType.getEventType(DeathEvent.class).getSettingDescriptors().stream()
+				.filter(setting -> setting.getName().equals("enabled")).findFirst().orElseThrow().getDefaultValue();
+		assertEquals("false", deathEnabled, "Entity events should be disabled by default");
+	}
+
+	// Tiles should be views over the world, and a large world should not need an object per tile.
+	@Test
+	public void testTilesAreViewsOverCompactTerrain() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+		World world = new World(4096, 4096);
+		long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+		assertTrue(allocated < 32L << 20, "A 4096x4096 world should take a few bytes per tile, took " + allocated);
+
+		world.setTileType(10, 10, World.Tile.TileType.WATER);
+		assertEquals(World.Tile.TileType.WATER, world.getTile(10, 10).getType(), "A new view should see the type set in the world");
+		SheepEntity sheep = new SheepEntity(world, 11, 10, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		world.getTile(11, 10).addEntity(sheep);
+		assertEquals(List.of(sheep), world.getTile(11, 10).getEntities(), "An entity added through a view should be in the world");
+		assertTrue(world.hasAnimal(11, 10), "The occupancy bits should follow the views");
+		world.getTile(11, 10).removeEntity(sheep);
+		assertTrue(world.getEntitiesAt(11, 10).isEmpty(), "The tile should be empty again");
+		assertEquals(world.getTile(11, 10), world.getTile(11, 10), "Views of the same tile should be equal");
+	}
+
+	// Chunks should be allocated only when something is stored in them, and sleep without animals.
+	@Test
+	public void testChunksAreAllocatedLazily() {
+		World world = new World(16_384, 16_384);
+		assertEquals(0, world.getAllocatedChunkCount(), "An empty world should allocate no chunk");
+		world.setTileType(5, 5, World.Tile.TileType.LAND);
+		assertEquals(0, world.getAllocatedChunkCount(), "Setting land on an empty chunk should not allocate it");
+
+		world.setTileType(100, 5, World.Tile.TileType.WATER);
+		PlantEntity plant = new PlantEntity(world, 10_000, 10_000, 1);
+		world.addEntity(plant, 10_000, 10_000);
+		assertEquals(2, world.getAllocatedChunkCount(), "Only the water chunk and the plant chunk should be allocated");
+		assertTrue(world.isDormant(10_000, 10_000), "A chunk holding only plants should be dormant");
+
+		SheepEntity sheep = new SheepEntity(world, 10_001, 10_000, SharedConstants.SHEEP_ENERGY_DEFAULT);
+		world.addEntity(sheep, 10_001, 10_000);
+		assertFalse(world.isDormant(10_000, 10_000), "A chunk with an animal should be active");
+		world.removeEntity(sheep, 10_001, 10_000);
+		assertTrue(world.isDormant(10_000, 10_000), "The chunk should go dormant when its last animal leaves");
+
+		List<World.Tile> occupied = new ArrayList<>();
+		world.forEachOccupiedTile(occupied::add);
+		assertEquals(List.of(world.getTile(10_000, 10_000)), occupied, "Only the plant tile should be visited");
+		assertEquals(8, world.getTilesInRange(0, 0, 2).size(), "Ranges should be clipped to the world");
+		assertTrue(new TerrainSnapshot(world).isWater(100, 5), "The snapshot should copy the allocated chunks");
+		assertFalse(new TerrainSnapshot(world).isWater(101, 5), "The rest of the chunk should stay land");
+	}
+
+	// Off-heap and mapped storage should evolve a seeded world exactly like the heap, and a mapped map should reopen.
+	@Test
+	public void testOffHeapStorageMatchesHeap() throws IOException {
+		Path directory = Files.createTempDirectory("bazinga");
+		Path terrain = directory.resolve("terrain.bin");
+		Path entities = directory.resolve("entities.bin");
+		try {
+			String heap = runSeeded(new World(48, 48, 7), new ArrayEntityStore());
+			assertEquals(heap, runSeeded(World.offHeap(48, 48, 7), new BufferEntityStore()), "Direct memory should behave like the heap");
+			World mapped = World.mapped(48, 48, 7, "test", terrain);
+			assertEquals(heap, runSeeded(mapped, new BufferEntityStore(entities)), "A mapped world should behave like the heap");
+			mapped.force();
+
+			World reopened = World.mapped(48, 48, 7, "test", terrain);
+			assertTrue(reopened.isWater(20, 20), "A reopened map should keep its water");
+			assertFalse(reopened.isWater(5, 5), "A reopened map should keep its land");
+			assertEquals(mapped.getAllocatedChunkCount(), reopened.getAllocatedChunkCount(), "Only the chunks with water should be reloaded");
+
+			World otherGenerator = World.mapped(48, 48, 7, "other", terrain);
+			assertFalse(otherGenerator.isWater(20, 20), "A map saved by another generator should not be reused");
+			assertEquals(0, otherGenerator.getAllocatedChunkCount(), "A map saved by another generator should be generated again");
+			otherGenerator.setTileType(20, 20, World.Tile.TileType.WATER);
+			otherGenerator.force();
+			World otherSeed = World.mapped(48, 48, 8, "other", terrain);
+			assertFalse(otherSeed.isWater(20, 20), "A map saved with another seed should not be reused");
+			assertEquals(0, otherSeed.getAllocatedChunkCount(), "A map saved with another seed should be generated again");
+		}
+		finally {
+			Files.deleteIfExists(terrain);
+			Files.deleteIfExists(entities);
+			Files.delete(directory);
+		}
+	}
+
+	// Without the spatial index the entities should search the tiles ring by ring and make the same choices.
+	@Test
+	public void testRingSearchMatchesSpatialIndex() {
+		World rings = new World(48, 48, 7);
+		String withoutIndex = runSeeded(rings, null, false);
+		assertNull(rings.getSpatialIndex(), "No index should be attached when it is switched off");
+		assertEquals(runSeeded(new World(48, 48, 7), null, true), withoutIndex, "The ring search should find what the index finds");
+	}
+
+	// The same seed should give the same map, whatever the generator and the number of threads.
+	@Test
+	public void testSeededWorldGeneration() {
+		String sequential = generateNoise(200, 150, 11, 1);
+		assertEquals(sequential, generateNoise(200, 150, 11, 3), "The noise map should not depend on the number of threads");
+		assertFalse(sequential.equals(generateNoise(200, 150, 12, 1)), "Another seed should give another map");
+		long water = sequential.chars().filter(c -> c == 'W').count();
+		assertTrue(water > 200 * 150 * 0.2 && water < 200 * 150 * 0.4, "About 30% of the map should be water, got " + water);
+		assertEquals(WorldManager.generateGrid(60, 60, 5).toString(), WorldManager.generateGrid(60, 60, 5).toString(), "The default generator should be seeded too");
+	}
+
+	private static String generateNoise(int width, int height, long seed, int threads) {
+		World world = new World(width, height, seed);
+		new NoiseWorldGenerator(seed, threads, 0.3, 0.5, 6).generate(world);
+		return world.toString();
+	}
+
+	// run a small seeded scenario and describe every change it made
+	private static String runSeeded(World world, EntityStore store) {
+		return runSeeded(world, store, true);
+	}
+
+	private static String runSeeded(World world, EntityStore store, boolean indexed) {
+		for (int x = 16; x < 24; x++) {
+			for (int y = 16; y < 24; y++) { world.setTileType(x, y, World.Tile.TileType.WATER); }
+		}
+		EntityManager em = new EntityManager(world, store, indexed);
+		for (int i = 0; i < 40; i++) { em.addEntity(new PlantEntity(world, (i * 7) % 48, (i * 13) % 16, 1)); }
+		for (int i = 0; i < 12; i++) { em.addEntity(new SheepEntity(world, (i * 5) % 48, 30 + i, SharedConstants.SHEEP_ENERGY_DEFAULT)); }
+		em.addEntity(new WolfEntity(world, 40, 40, SharedConstants.WOLF_ENERGY_DEFAULT));
+		DeltaRecorder recorder = new DeltaRecorder();
+		em.setListener(recorder);
+		StringBuilder changes = new StringBuilder();
+		for (int tick = 0; tick < 60; tick++) {
+			em.updateCycle();
+			ModelDelta delta = recorder.drain();
+			for (int i = 0; i < delta.size(); i++) {
+				changes.append(delta.getKind(i)).append(' ').append(delta.getEntityId(i)).append(' ')
+						.append(delta.getX(i)).append(',').append(delta.getY(i)).append('\n');
+			}
+		}
+		return changes.toString();
+	}
+
+	private static void replay(ModelDelta delta, Set<Integer> alive) {
+		for (int i = 0; i < delta.size(); i++) {
+			if (delta.getKind(i) == ModelDelta.Kind.SPAWN) { alive.add(delta.getEntityId(i)); }
+			if (delta.getKind(i) == ModelDelta.Kind.DIE) { alive.remove(delta.getEntityId(i)); }
+		}
+	}
+
+	private static int population(ModelDTO dto) {
+		return dto.getCount(Species.PLANT) + dto.getCount(Species.SHEEP) + dto.getCount(Species.WOLF);
+	}
+
+	// A streamed world should generate the chunks near animals and the camera, evict idle ones and regenerate them unchanged.
+	@Test
+	public void testStreamedWorldGeneratesOnDemand() throws InterruptedException {
+		World world = World.streamed(4096, 4096, 5);
+		NoiseWorldGenerator generator = new NoiseWorldGenerator(5, 1);
+		ChunkStreamer streamer = new ChunkStreamer(world, generator, 1, 16, 1);
+		assertEquals(0, world.getAllocatedChunkCount(), "A streamed world should start with no chunk");
+		assertFalse(world.isGenerated(2048, 2048), "Tiles should not exist before their chunk is generated");
+
+		SheepEntity sheep = new SheepEntity(world, 2048, 2048, 1);
+		world.addEntity(sheep, 2048, 2048);
+		streamer.update(0);
+		awaitStreamer(streamer);
+		int chunkX = 2048 >> World.CHUNK_BITS, chunkY = 2048 >> World.CHUNK_BITS;
+		for (int cx = chunkX - 1; cx <= chunkX + 1; cx++) {
+			for (int cy = chunkY - 1; cy <= chunkY + 1; cy++) {
+				assertTrue(world.isChunkGenerated(cx, cy), "The chunks around an animal should be generated");
+				assertTrue(Arrays.equals(generator.generateChunk(world, cx, cy), world.copyChunkTerrain(cx, cy)), "A streamed chunk should match the generator");
+			}
+		}
+		assertFalse(world.isChunkGenerated(chunkX + 2, chunkY), "Chunks out of the radius should not be generated");
+		TerrainSnapshot snapshot = new TerrainSnapshot(world);
+		assertTrue(snapshot.isGenerated(2048, 2048) && !snapshot.isGenerated(0, 0), "The snapshot should tell generated tiles apart");
+
+		byte[] terrain = world.copyChunkTerrain(chunkX + 1, chunkY);
+		world.removeEntity(sheep, 2048, 2048);
+		streamer.update(32);
+		assertFalse(world.isChunkGenerated(chunkX + 1, chunkY), "Idle chunks should be evicted");
+		assertEquals(0, world.getAllocatedChunkCount(), "Evicted chunks should free their memory");
+
+		streamer.setViewport((chunkX + 1) * World.CHUNK_SIZE, chunkY * World.CHUNK_SIZE, (chunkX + 1) * World.CHUNK_SIZE + 10, chunkY * World.CHUNK_SIZE + 10);
+		streamer.update(40);
+		awaitStreamer(streamer);
+		assertTrue(world.isChunkGenerated(chunkX + 1, chunkY), "Chunks under the camera should be generated");
+		assertTrue(Arrays.equals(terrain, world.copyChunkTerrain(chunkX + 1, chunkY)), "A regenerated chunk should be identical");
+		streamer.close();
+	}
+
+	// The plants of a streamed world should come and go with their chunk, and come back in the same places.
+	@Test
+	public void testStreamedChunksBringTheirPlants() throws InterruptedException, IOException {
+		World world = World.streamed(1024, 1024, 9);
+		EntityManager em = new EntityManager(world);
+		ChunkStreamer streamer = new ChunkStreamer(world, new NoiseWorldGenerator(9, 1), 0, 16, 1);
+		streamer.setListener(em);
+		streamer.setViewport(512, 512, 520, 520);
+		streamer.update(0);
+		awaitStreamer(streamer);
+		int chunk = 512 >> World.CHUNK_BITS;
+		String plants = describePlants(world, chunk, chunk);
+		assertFalse(plants.isEmpty(), "A generated chunk should grow plants");
+		assertEquals(plants.split(";").length, em.getEntities().size(), "Only the chunk in view should have plants");
+
+		Path file = Files.createTempFile("bazinga", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(DeathEvent.class);
+			recording.enable(EvictionEvent.class);
+			recording.start();
+			streamer.setViewport(0, 0, -1, -1);
+			streamer.update(32);
+			recording.stop();
+			recording.dump(file);
+		}
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		Files.delete(file);
+		assertFalse(world.isChunkGenerated(chunk, chunk), "A chunk holding only plants should be evicted");
+		assertEquals(plants.split(";").length, events.stream().filter(e -> e.getEventType().getName().equals("it.unibo.bazinga.Eviction")).count(), "Every evicted plant should be recorded as evicted");
+		assertTrue(events.stream().noneMatch(e -> e.getEventType().getName().equals("it.unibo.bazinga.Death")), "Evicted plants should not be recorded as deaths");
+		em.updateCycle();
+		assertTrue(em.getEntities().isEmpty(), "The plants of an evicted chunk should leave the simulation");
+		int slots = world.getIdAllocator().slotCount();
+
+		streamer.setViewport(512, 512, 520, 520);
+		streamer.update(40);
+		awaitStreamer(streamer);
+		assertEquals(plants, describePlants(world, chunk, chunk), "A regenerated chunk should grow the same plants");
+		assertEquals(slots, world.getIdAllocator().slotCount(), "The plants of an evicted chunk should release their ids");
+		streamer.close();
+	}
+
+	// positions of the plants of a chunk, in order
+	private static String describePlants(World world, int chunkX, int chunkY) {
+		StringBuilder plants = new StringBuilder();
+		for (int x = chunkX * World.CHUNK_SIZE; x < (chunkX + 1) * World.CHUNK_SIZE; x++) {
+			for (int y = chunkY * World.CHUNK_SIZE; y < (chunkY + 1) * World.CHUNK_SIZE; y++) {
+				if (world.hasPlant(x, y)) { plants.append(x).append(',').append(y).append(';'); }
+			}
+		}
+		return plants.toString();
+	}
+
+	// install what the background pool generates, as the simulation thread would
+	private static void awaitStreamer(ChunkStreamer streamer) throws InterruptedException {
+		for (int i = 0; i < 10_000 && streamer.getPendingCount() > 0; i++) {
+			Thread.sleep(1);
+			streamer.update(1);
+		}
+		assertEquals(0, streamer.getPendingCount(), "The streamer should finish generating");
+	}
+
+	// The headless engine should advance the simulation one cycle per step without any display.
+	@Test
+	public void testEngineStepsHeadless() {
+		World world = createWorld(10, 10);
+		EntityManager em = new EntityManager(world);
+		SheepEntity sheep = new SheepEntity(world, 1, 1, 1);
+		em.addEntity(sheep);
+
+		SimulationEngine engine = new SimulationEngine(world, em);
+		engine.step();
+		assertFalse(em.getEntities().contains(sheep), "Sheep should starve on the first tick");
+
+		engine.step(2);
+		assertEquals(3, engine.getTickCount(), "Engine should count every executed tick");
+		assertTrue(engine.runFor(Duration.ofMillis(10)) > 0, "runFor should execute at least one tick");
+		assertFalse(engine.isRunning(), "Engine should not be running after runFor returns");
+		engine.stop();
+		assertEquals(0, engine.run(), "A stop issued before run should not be lost");
+		assertFalse(engine.isRunning(), "Engine should not be running after run returns");
+	}
+
 	// WorldManager.generateGrid should create a grid of the correct size and include water tiles.
 	@Test
 	public void testWorldGridGeneration() {
@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
 
 import it.unibo.bazinga.common.SharedConstants;
+import it.unibo.bazinga.common.TickProfiler;
 import it.unibo.bazinga.view.geometry.IsometricRenderer;
 import it.unibo.bazinga.view.geometry.TopDownRenderer;
 import it.unibo.bazinga.view.handlers.CullingHandler;
@@ -184,7 +185,7 @@ public class ViewLayerTest {
 		
 		// Ensure the initial renderer is isometric.
 		stackView.setGeometryRenderer(new IsometricRenderer());
-		ViewControlsHandler controlsHandler = new ViewControlsHandler(stackView);
+		ViewControlsHandler controlsHandler = new ViewControlsHandler(stackView, new TickProfiler());
 		
 		// Initially, the geometry renderer should be an instance of IsometricRenderer.
 		assertTrue(stackView.getGeometryRenderer() instanceof IsometricRenderer, "Initial geometry renderer should be IsometricRenderer");